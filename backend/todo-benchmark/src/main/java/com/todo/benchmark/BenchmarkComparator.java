@@ -0,0 +1,91 @@
+package com.todo.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files and exits non-zero when any benchmark regressed by more than
+ * the threshold. A change only counts when the two confidence intervals do not overlap, so noisy
+ * runs do not fail the comparison on their own.
+ *
+ * <pre>mvn exec:java@compare -Dbaseline=baselines/jmh-baseline.json -Dcurrent=target/jmh-result.json -Dthreshold=0.10</pre>
+ */
+public class BenchmarkComparator {
+
+    record Score(String mode, double value, double error, String unit) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        String baselinePath = System.getProperty("baseline", "baselines/jmh-baseline.json");
+        String currentPath = System.getProperty("current", "target/jmh-result.json");
+        double threshold = Double.parseDouble(System.getProperty("threshold", "0.10"));
+
+        Map<String, Score> baseline = read(new File(baselinePath));
+        Map<String, Score> current = read(new File(currentPath));
+
+        int regressions = 0;
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score before = baseline.get(entry.getKey());
+            Score after = entry.getValue();
+            if (before == null) {
+                System.out.printf(Locale.ROOT, "%-80s %12.3f %-8s (new)%n", entry.getKey(), after.value(), after.unit());
+                continue;
+            }
+            // Positive change means "worse" regardless of mode
+            boolean higherIsBetter = after.mode().equals("thrpt");
+            double change = (after.value() - before.value()) / before.value();
+            double worse = higherIsBetter ? -change : change;
+            boolean significant = Math.abs(after.value() - before.value()) > before.error() + after.error();
+            String verdict = worse > threshold && significant ? "REGRESSION"
+                : worse < -threshold && significant ? "improved" : "";
+            if (verdict.equals("REGRESSION")) {
+                regressions++;
+            }
+            System.out.printf(Locale.ROOT, "%-80s %12.3f -> %12.3f %-8s %+7.1f%% %s%n",
+                entry.getKey(), before.value(), after.value(), after.unit(), change * 100, verdict);
+        }
+
+        if (regressions > 0) {
+            System.err.printf(Locale.ROOT, "%d benchmark(s) regressed by more than %.0f%%%n", regressions, threshold * 100);
+            System.exit(1);
+        }
+    }
+
+    // Keyed by benchmark name plus its @Param values and any secondary metric (e.g. gc.alloc.rate.norm)
+    private static Map<String, Score> read(File file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            String name = run.get("benchmark").asText().replace("com.todo.benchmark.", "");
+            StringBuilder key = new StringBuilder(name);
+            JsonNode params = run.get("params");
+            if (params != null) {
+                params.fields().forEachRemaining(param ->
+                    key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            }
+            String mode = run.get("mode").asText();
+            scores.put(key.toString(), score(mode, run.get("primaryMetric")));
+            JsonNode secondary = run.get("secondaryMetrics");
+            if (secondary != null) {
+                secondary.fields().forEachRemaining(metric -> {
+                    if (metric.getKey().endsWith(".norm")) {
+                        // Normalized allocation: lower is better, whatever the primary mode
+                        scores.put(key + " :" + metric.getKey(), score("avgt", metric.getValue()));
+                    }
+                });
+            }
+        }
+        return scores;
+    }
+
+    private static Score score(String mode, JsonNode metric) {
+        double error = metric.get("scoreError").isNumber() ? metric.get("scoreError").asDouble() : 0;
+        return new Score(mode, metric.get("score").asDouble(), Double.isNaN(error) ? 0 : error,
+            metric.get("scoreUnit").asText());
+    }
+}
@@ -0,0 +1,70 @@
+package com.todo.benchmark;
+
+import com.todo.service.TodoServiceApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Boots todo-service against an in-memory H2 database in MySQL mode, with the schema
+ * built by the real Flyway migrations rather than by Hibernate.
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String databaseName, String... overrides) {
+        return run(WebApplicationType.NONE, new Class<?>[0], databaseName, overrides);
+    }
+
+    // Same, with extra configuration classes such as DatabaseLatency
+    public static ConfigurableApplicationContext start(String databaseName, Class<?>[] extraSources,
+                                                       String... overrides) {
+        return run(WebApplicationType.NONE, extraSources, databaseName, overrides);
+    }
+
+    // Same, but with Tomcat listening on a random port (local.server.port) and extra configuration classes
+    public static ConfigurableApplicationContext startServer(String databaseName, Class<?>[] extraSources,
+                                                             String... overrides) {
+        List<String> args = new ArrayList<>(List.of("--server.port=0"));
+        args.addAll(Arrays.asList(overrides));
+        return run(WebApplicationType.SERVLET, extraSources, databaseName, args.toArray(String[]::new));
+    }
+
+    private static ConfigurableApplicationContext run(WebApplicationType webApplicationType, Class<?>[] extraSources,
+                                                      String databaseName, String... overrides) {
+        List<String> args = new ArrayList<>(List.of(
+            "--spring.profiles.active=bench",
+            "--spring.main.banner-mode=off",
+            "--spring.datasource.url=jdbc:h2:mem:" + databaseName
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.flyway.enabled=true",
+            "--spring.jpa.hibernate.ddl-auto=none",
+            "--spring.jpa.show-sql=false",
+            "--resend.api.key=benchmark",
+            // skip the startup BCrypt calibration, which costs a few hashes and varies between runs
+            "--app.password-hashing.cost=10",
+            // keep background maintenance jobs out of the measurement window
+            "--app.todo-stats.repair-initial-delay-ms=86400000",
+            // the reminder poll's first run comes at startup, before any data is loaded
+            "--app.email.reminder.poll-interval-ms=86400000",
+            "--logging.level.root=WARN",
+            "--logging.level.com.todo=WARN",
+            "--logging.level.org.springframework.web=WARN"
+        ));
+        args.addAll(Arrays.asList(overrides));
+        List<Class<?>> sources = new ArrayList<>(List.of(TodoServiceApplication.class));
+        sources.addAll(Arrays.asList(extraSources));
+        return new SpringApplicationBuilder(sources.toArray(Class<?>[]::new))
+                .web(webApplicationType)
+                .run(args.toArray(String[]::new));
+    }
+}
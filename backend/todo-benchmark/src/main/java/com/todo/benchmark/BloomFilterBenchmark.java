@@ -0,0 +1,66 @@
+package com.todo.benchmark;
+
+import com.todo.service.availability.BloomFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups in the availability filter at 1% false positives, sized for {@code users} emails: {@code free}
+ * asks for handles that were never added (what keystroke checks mostly see), {@code taken} for added ones,
+ * which also fall through to the database in the service. One filter takes about 1.2 bytes per user.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BloomFilterBenchmark {
+
+    private static final int PROBES = 4096;
+
+    @Param({"100000", "1000000"})
+    public int users;
+
+    private BloomFilter filter;
+    private String[] free;
+    private String[] taken;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        filter = new BloomFilter(users, 0.01);
+        for (int i = 0; i < users; i++) {
+            filter.add("user" + i + "@example.com");
+        }
+        free = new String[PROBES];
+        taken = new String[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            free[i] = "someone" + i + "@example.com";
+            taken[i] = "user" + (i * 7919 % users) + "@example.com";
+        }
+    }
+
+    @Benchmark
+    public boolean free() {
+        next = (next + 1) & (PROBES - 1);
+        return filter.mightContain(free[next]);
+    }
+
+    @Benchmark
+    public boolean taken() {
+        next = (next + 1) & (PROBES - 1);
+        return filter.mightContain(taken[next]);
+    }
+}
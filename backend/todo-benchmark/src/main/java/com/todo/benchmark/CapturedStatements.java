@@ -0,0 +1,87 @@
+package com.todo.benchmark;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the prepared statements the application's DataSource executes inside {@link #capture}, each with
+ * the SQL Hibernate generated and the parameter values it bound, so a check can EXPLAIN exactly what a
+ * repository method sends rather than a hand-written copy of it.
+ */
+@Configuration
+public class CapturedStatements implements BeanPostProcessor {
+
+    private static final ThreadLocal<List<Captured>> CAPTURING = new ThreadLocal<>();
+
+    public record Captured(String sql, Object[] parameters) {
+    }
+
+    // The statements run by call on this thread, in execution order
+    public static List<Captured> capture(Runnable call) {
+        List<Captured> captured = new ArrayList<>();
+        CAPTURING.set(captured);
+        try {
+            call.run();
+        } finally {
+            CAPTURING.remove();
+        }
+        return captured;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return proxy(DataSource.class, dataSource, null);
+        }
+        return bean;
+    }
+
+    private static Object proxy(Class<?> type, Object target, String sql) {
+        List<Object> parameters = new ArrayList<>();
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> invoke(target, method, args, sql, parameters));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args, String sql, List<Object> parameters)
+            throws Throwable {
+        String name = method.getName();
+        if (sql != null) {
+            // setString(1, "x"), setObject(2, v, type) and friends; positions are 1-based
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                while (parameters.size() < index) {
+                    parameters.add(null);
+                }
+                parameters.set(index - 1, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.startsWith("execute") && CAPTURING.get() != null) {
+                CAPTURING.get().add(new Captured(sql, parameters.toArray()));
+            }
+        }
+        Object result;
+        try {
+            result = method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+        Class<?> returnType = method.getReturnType();
+        if (result instanceof Connection connection && returnType == Connection.class) {
+            return proxy(Connection.class, connection, null);
+        }
+        // Only prepared statements carry the SQL and parameters worth recording
+        if (result instanceof PreparedStatement && PreparedStatement.class.isAssignableFrom(returnType)
+                && args != null && args.length > 0 && args[0] instanceof String prepared) {
+            return proxy(returnType, result, prepared);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,62 @@
+package com.todo.benchmark;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adds a fixed delay to every statement execution on the application's DataSource, standing in for
+ * the network round trip to a real MySQL server that in-memory H2 does not have. The connection is
+ * held while it sleeps, as it would be while waiting on the wire. Off until {@link #set} is called,
+ * so data loading runs at full speed.
+ */
+@Configuration
+public class DatabaseLatency implements BeanPostProcessor {
+
+    private static volatile long delayNanos;
+
+    public static void set(long micros) {
+        delayNanos = TimeUnit.MICROSECONDS.toNanos(micros);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return proxy(DataSource.class, dataSource);
+        }
+        return bean;
+    }
+
+    private static Object proxy(Class<?> type, Object target) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> invoke(target, method, args));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        if (method.getName().startsWith("execute") && delayNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(delayNanos);
+        }
+        Object result;
+        try {
+            result = method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+        // Statements come in three interfaces; proxy the one the caller asked for
+        Class<?> returnType = method.getReturnType();
+        if (result instanceof Connection connection && returnType == Connection.class) {
+            return proxy(Connection.class, connection);
+        }
+        if (result instanceof Statement && Statement.class.isAssignableFrom(returnType)) {
+            return proxy(returnType, result);
+        }
+        return result;
+    }
+}
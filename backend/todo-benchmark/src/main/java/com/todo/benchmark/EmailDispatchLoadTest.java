@@ -0,0 +1,103 @@
+package com.todo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todo.service.email.EmailDispatcher;
+import com.todo.service.email.EmailMessage;
+import com.todo.service.email.ResendEmailTransport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes {@code bench.email.messages} emails through the real {@link EmailDispatcher} and
+ * {@link ResendEmailTransport} against a {@link FakeResendServer}, so nothing leaves the machine.
+ * The producer honours back-pressure: a rejected submit waits briefly and tries again. Exits non-zero
+ * when any email failed, went missing or was accepted twice.
+ *
+ * <pre>mvn compile exec:java@email-load -Dbench.email.messages=100000 -Dbench.email.latency-ms=20 -Dbench.email.failure-rate=0.02</pre>
+ */
+public class EmailDispatchLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int messages = Integer.getInteger("bench.email.messages", 100_000);
+        long latencyMillis = Long.getLong("bench.email.latency-ms", 20);
+        double failureRate = Double.parseDouble(System.getProperty("bench.email.failure-rate", "0.02"));
+        int workers = Integer.getInteger("bench.email.workers", 4);
+
+        try (FakeResendServer server = new FakeResendServer(latencyMillis, failureRate)) {
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            ResendEmailTransport transport = new ResendEmailTransport(server.baseUrl(), "test-key", 10_000,
+                    new ObjectMapper());
+            // Short backoff and a breaker that only opens on a real outage, not on the injected 503s
+            EmailDispatcher dispatcher = new EmailDispatcher(transport, meterRegistry, 10_000, workers,
+                    8, 50, 1_000, 20, 1_000, 60_000);
+            dispatcher.start();
+
+            long[] latenciesNanos = new long[messages];
+            AtomicLong failures = new AtomicLong();
+            List<CompletableFuture<Void>> results = new ArrayList<>(messages);
+            long rejectedSubmits = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < messages; i++) {
+                EmailMessage message = new EmailMessage("bench@example.com", "user" + i + "@example.com",
+                        "Todo Reminder - load test", "Hello user" + i, "load-test");
+                CompletableFuture<Void> result;
+                while (true) {
+                    long submittedAt = System.nanoTime();
+                    result = dispatcher.submit(message);
+                    if (!result.isCompletedExceptionally()
+                            || !(result.exceptionNow() instanceof RejectedExecutionException)) {
+                        int index = i;
+                        result.whenComplete((ignored, e) -> {
+                            latenciesNanos[index] = System.nanoTime() - submittedAt;
+                            if (e != null) {
+                                failures.incrementAndGet();
+                            }
+                        });
+                        break;
+                    }
+                    rejectedSubmits++;
+                    Thread.sleep(1);
+                }
+                results.add(result);
+            }
+            CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            dispatcher.shutdown();
+
+            Arrays.sort(latenciesNanos);
+            System.out.printf(Locale.ROOT, "%,d emails in %.1fs (%,.0f/s) over %,d HTTP calls (%,d failed with 503)%n",
+                    messages, seconds, messages / seconds, server.calls(), server.failedCalls());
+            System.out.printf(Locale.ROOT, "latency submit->accepted p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                    percentile(latenciesNanos, 0.50), percentile(latenciesNanos, 0.99),
+                    latenciesNanos[messages - 1] / 1e6);
+            System.out.printf(Locale.ROOT, "retries %,.0f, rejected submits %,d%n",
+                    meterRegistry.counter("email.dispatch.retries").count(), rejectedSubmits);
+
+            List<String> violations = new ArrayList<>();
+            if (failures.get() > 0) {
+                violations.add(failures.get() + " email(s) failed");
+            }
+            if (server.acceptedRecipients() != messages) {
+                violations.add("server accepted " + server.acceptedRecipients() + " of " + messages + " recipients");
+            }
+            if (server.duplicateRecipients() > 0) {
+                violations.add(server.duplicateRecipients() + " recipient(s) received duplicates");
+            }
+            if (!violations.isEmpty()) {
+                violations.forEach(System.err::println);
+                System.exit(1);
+            }
+        }
+    }
+
+    private static double percentile(long[] sortedNanos, double p) {
+        return sortedNanos[(int) Math.min(sortedNanos.length - 1, Math.ceil(p * sortedNanos.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,116 @@
+package com.todo.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the Resend API: answers {@code POST /emails} and {@code POST /emails/batch}
+ * after a fixed latency, fails a share of calls with 503, and records every accepted recipient so a
+ * load test can check nothing was lost or sent twice. A repeated {@code Idempotency-Key} is answered
+ * without sending again, as Resend does.
+ */
+public class FakeResendServer implements AutoCloseable {
+
+    static {
+        // The JDK server writes headers and body separately; with Nagle on, each call stalls on a delayed ACK
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final long latencyMillis;
+    private final double failureRate;
+
+    private final ConcurrentHashMap<String, Integer> accepted = new ConcurrentHashMap<>();
+    private final Set<String> idempotencyKeys = ConcurrentHashMap.newKeySet();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failedCalls = new AtomicLong();
+
+    public FakeResendServer(long latencyMillis, double failureRate) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.failureRate = failureRate;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.createContext("/emails", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public int acceptedRecipients() {
+        return accepted.size();
+    }
+
+    public long duplicateRecipients() {
+        return accepted.values().stream().filter(count -> count > 1).count();
+    }
+
+    public long calls() {
+        return calls.get();
+    }
+
+    public long failedCalls() {
+        return failedCalls.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange; InputStream body = exchange.getRequestBody()) {
+            calls.incrementAndGet();
+            JsonNode request = objectMapper.readTree(body);
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+                failedCalls.incrementAndGet();
+                respond(exchange, 503, "{\"message\":\"unavailable\"}");
+                return;
+            }
+            boolean batch = exchange.getRequestURI().getPath().endsWith("/batch");
+            if (batch != request.isArray()) {
+                respond(exchange, 422, "{\"message\":\"unexpected payload shape\"}");
+                return;
+            }
+            String idempotencyKey = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+            boolean repeated = idempotencyKey != null && !idempotencyKeys.add(idempotencyKey);
+            StringBuilder ids = new StringBuilder();
+            for (JsonNode email : batch ? request : objectMapper.createArrayNode().add(request)) {
+                if (!repeated) {
+                    accepted.merge(email.get("to").get(0).asText(), 1, Integer::sum);
+                }
+                ids.append(ids.isEmpty() ? "" : ",").append("{\"id\":\"").append(calls.get()).append("\"}");
+            }
+            respond(exchange, 200, batch ? "{\"data\":[" + ids + "]}" : ids.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,70 @@
+package com.todo.benchmark;
+
+import com.todo.service.entity.Todo;
+import com.todo.service.entity.User;
+import com.todo.service.repository.UserRepository;
+import com.todo.service.security.JwtUtil;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Hand-wired collaborators for benchmarks that do not need a Spring context.
+ */
+public final class Fixtures {
+
+    public static final String SECRET = "myVeryLongSecretKeyForJWTTokenGenerationThatIsAtLeast256BitsLong";
+    public static final long EXPIRATION_MILLIS = 86_400_000L;
+
+    private Fixtures() {
+    }
+
+    public static JwtUtil jwtUtil() {
+        return new JwtUtil(SECRET, EXPIRATION_MILLIS);
+    }
+
+    public static User user(String username) {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuuJ8pQxXkB1lq0V5Y9sT1xQ5m8Xc7y0S2");
+        user.setEnabled(true);
+        return user;
+    }
+
+    // Only findByUsername is answered; any other repository call fails loudly
+    public static UserRepository userRepository(User user) {
+        return (UserRepository) Proxy.newProxyInstance(
+            UserRepository.class.getClassLoader(),
+            new Class<?>[] {UserRepository.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("findByUsername")) {
+                    return user.getUsername().equals(args[0]) ? Optional.of(user) : Optional.empty();
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    public static List<Todo> todos(int count) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Todo> todos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Todo todo = new Todo();
+            todo.setId((long) i);
+            todo.setTitle("Todo " + i);
+            todo.setDescription("Description for todo " + i + " with a little more text to be realistic");
+            todo.setCompleted(i % 3 == 0);
+            todo.setUserId("user-1");
+            todo.setPriority(Todo.Priority.values()[i % Todo.Priority.values().length]);
+            todo.setDueDate(i % 2 == 0 ? now.plusDays(i % 30) : null);
+            todo.setCreatedAt(now.minusMinutes(i));
+            todo.setUpdatedAt(now.minusMinutes(i));
+            todos.add(todo);
+        }
+        return todos;
+    }
+}
@@ -0,0 +1,73 @@
+package com.todo.benchmark;
+
+import com.todo.service.repository.UserRepository;
+import com.todo.service.security.JwtRequestFilter;
+import com.todo.service.security.JwtUtil;
+import com.todo.service.security.VerifiedPrincipalCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full authenticated pass through the JWT filter with the user lookup stubbed out,
+ * so the score is filter and token cost only. The uncached variant disables the
+ * verified-principal cache to measure the first request of every token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtRequestFilterBenchmark {
+
+    private JwtRequestFilter filter;
+    private JwtRequestFilter uncachedFilter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = Fixtures.jwtUtil();
+        UserRepository userRepository = Fixtures.userRepository(Fixtures.user("benchmark-user"));
+        filter = new JwtRequestFilter(jwtUtil, userRepository,
+            new VerifiedPrincipalCache(10_000, new SimpleMeterRegistry()), new SimpleMeterRegistry());
+        uncachedFilter = new JwtRequestFilter(jwtUtil, userRepository,
+            new VerifiedPrincipalCache(0, new SimpleMeterRegistry()), new SimpleMeterRegistry());
+        authorization = "Bearer " + jwtUtil.generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    public Object authenticatedRequest() throws Exception {
+        return authenticate(filter);
+    }
+
+    @Benchmark
+    public Object authenticatedRequestUncached() throws Exception {
+        return authenticate(uncachedFilter);
+    }
+
+    private Object authenticate(JwtRequestFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/todos");
+        request.addHeader("Authorization", authorization);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.todo.benchmark;
+
+import com.todo.service.security.JwtUtil;
+import com.todo.service.security.TokenVerification;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the filter pays to turn a bearer token into (subject, expiry): the previous JwtUtil path,
+ * which rebuilt the key and parser per call and parsed the token three times, against the
+ * single-pass verifier. Run with {@code -prof gc} to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = Fixtures.jwtUtil();
+        token = jwtUtil.generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    public Object legacyExtractAndValidate() {
+        String subject = LegacyJwt.extractAllClaims(token).getSubject();
+        boolean valid = LegacyJwt.validateToken(token);
+        Date expiration = LegacyJwt.extractAllClaims(token).getExpiration();
+        return valid ? subject + expiration.getTime() : null;
+    }
+
+    @Benchmark
+    public TokenVerification singlePassVerify() {
+        return jwtUtil.verify(token);
+    }
+
+    // The JwtUtil implementation before the verifier was introduced, kept here as the reference point
+    static final class LegacyJwt {
+
+        private LegacyJwt() {
+        }
+
+        static Claims extractAllClaims(String token) {
+            return Jwts.parserBuilder()
+                    .setSigningKey(Keys.hmacShaKeyFor(Fixtures.SECRET.getBytes()))
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody();
+        }
+
+        static boolean validateToken(String token) {
+            try {
+                Jwts.parserBuilder()
+                    .setSigningKey(Keys.hmacShaKeyFor(Fixtures.SECRET.getBytes()))
+                    .build()
+                    .parseClaimsJws(token);
+                return !extractAllClaims(token).getExpiration().before(new Date());
+            } catch (JwtException | IllegalArgumentException e) {
+                return false;
+            }
+        }
+    }
+}
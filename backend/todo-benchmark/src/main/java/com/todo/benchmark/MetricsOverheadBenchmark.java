@@ -0,0 +1,89 @@
+package com.todo.benchmark;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What one recorded sample costs on a {@link PrometheusMeterRegistry}: a timer without buckets, a timer with
+ * the percentile histogram the service timers publish, the same from four threads, and a counter. The
+ * {@code timerLookup} case registers the timer on every call, as code that does not keep its meters would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    private PrometheusMeterRegistry registry;
+    private Timer plainTimer;
+    private Timer histogramTimer;
+    private Counter counter;
+
+    @Setup
+    public void setUp() {
+        registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        plainTimer = Timer.builder("bench.plain").register(registry);
+        histogramTimer = histogramTimer();
+        counter = Counter.builder("bench.counter").tag("outcome", "sent").register(registry);
+    }
+
+    @Benchmark
+    public void timer() {
+        plainTimer.record(sample(), TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    public void timerWithHistogram() {
+        histogramTimer.record(sample(), TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void timerWithHistogramContended() {
+        histogramTimer.record(sample(), TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    public void timerLookup() {
+        histogramTimer().record(sample(), TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    public void counter() {
+        counter.increment();
+    }
+
+    private Timer histogramTimer() {
+        return Timer.builder("bench.histogram")
+                .tag("class", "TodoService")
+                .tag("method", "getAllTodosByUserId")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(5))
+                .register(registry);
+    }
+
+    // Spread over the bucket range so the histogram search does not always stop at the same bucket
+    private static long sample() {
+        return ThreadLocalRandom.current().nextLong(100_000, 50_000_000);
+    }
+}
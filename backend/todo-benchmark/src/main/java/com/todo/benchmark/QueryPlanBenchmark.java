@@ -0,0 +1,195 @@
+package com.todo.benchmark;
+
+import com.todo.benchmark.CapturedStatements.Captured;
+import com.todo.service.dto.TodoFilter;
+import com.todo.service.entity.Todo;
+import com.todo.service.repository.TodoRepository;
+import com.todo.service.repository.TodoTombstoneRepository;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Loads millions of synthetic todos into H2 (MySQL mode), then for every TodoRepository query
+ * checks the plan uses the expected composite index and that p95 latency stays within budget.
+ * Exits non-zero on any violation so it can gate a build.
+ *
+ * <p>The plan is that of the statement the repository method actually sends: {@link CapturedStatements}
+ * records the SQL Hibernate generated and the values it bound, and that is what gets EXPLAINed.
+ *
+ * <pre>mvn exec:java@query-plans -Dbench.rows=2000000 -Dbench.users=2000</pre>
+ */
+public class QueryPlanBenchmark {
+
+    private static final int WARMUP_CALLS = 200;
+    private static final int MEASURED_CALLS = 200;
+
+    record QueryCase(String name, String expectedIndex, double budgetMillis, Supplier<?> call) {
+    }
+
+    record Result(QueryCase queryCase, String plan, double p95Millis, List<String> violations) {
+    }
+
+    public static void main(String[] args) {
+        int rows = Integer.getInteger("bench.rows", 2_000_000);
+        int users = Integer.getInteger("bench.users", 2_000);
+        double budgetScale = Double.parseDouble(System.getProperty("bench.budget-scale", "1.0"));
+
+        try (ConfigurableApplicationContext context = BenchmarkContext.start("queryplans",
+                new Class<?>[] {CapturedStatements.class})) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            TodoRepository repository = context.getBean(TodoRepository.class);
+
+            long loadStart = System.nanoTime();
+            SyntheticTodos.load(jdbcTemplate, rows, users);
+            // One tombstone per 20 todos, under ids no live todo uses, so the sync scan has rows to plan for
+            jdbcTemplate.update("INSERT INTO todo_tombstones (todo_id, user_id, change_seq, deleted_at) " +
+                "SELECT id + ?, user_id, 1, CURRENT_TIMESTAMP(6) FROM todos WHERE MOD(id, 20) = 0", rows);
+            jdbcTemplate.execute("ANALYZE");
+            System.out.printf(Locale.ROOT, "Loaded %,d todos for %,d users in %.1fs%n",
+                rows, users, (System.nanoTime() - loadStart) / 1e9);
+
+            List<Result> results = new ArrayList<>();
+            for (QueryCase queryCase : cases(repository, context.getBean(TodoTombstoneRepository.class),
+                                             context.getBean(TransactionTemplate.class), SyntheticTodos.userId(7))) {
+                results.add(run(jdbcTemplate, queryCase, budgetScale));
+            }
+
+            boolean failed = false;
+            for (Result result : results) {
+                System.out.printf(Locale.ROOT, "%-44s p95 %8.3f ms  %s%n", result.queryCase().name(), result.p95Millis(),
+                    result.violations().isEmpty() ? "OK" : "FAIL " + result.violations());
+                failed |= !result.violations().isEmpty();
+            }
+            if (failed) {
+                System.err.println("Query plan benchmark failed");
+                System.exit(1);
+            }
+        }
+    }
+
+    private static Result run(JdbcTemplate jdbcTemplate, QueryCase queryCase, double budgetScale) {
+        List<String> violations = new ArrayList<>();
+        List<Captured> queries = CapturedStatements.capture(() -> queryCase.call().get()).stream()
+            .filter(statement -> statement.sql().stripLeading().regionMatches(true, 0, "select", 0, 6))
+            .toList();
+        if (queries.size() != 1) {
+            violations.add("expected one query, ran " + queries.size());
+            return new Result(queryCase, "", 0, violations);
+        }
+        Captured query = queries.get(0);
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + query.sql(), String.class, query.parameters());
+        String normalizedPlan = plan.toLowerCase(Locale.ROOT);
+        if (normalizedPlan.contains("tablescan")) {
+            violations.add("full table scan");
+        }
+        if (!normalizedPlan.contains(queryCase.expectedIndex())) {
+            violations.add("expected index " + queryCase.expectedIndex());
+        }
+
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            queryCase.call().get();
+        }
+        long[] samples = new long[MEASURED_CALLS];
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            long start = System.nanoTime();
+            queryCase.call().get();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        double p95Millis = samples[(int) Math.ceil(MEASURED_CALLS * 0.95) - 1] / 1e6;
+        double budget = queryCase.budgetMillis() * budgetScale;
+        if (p95Millis > budget) {
+            violations.add(String.format(Locale.ROOT, "p95 %.3f ms over budget %.1f ms", p95Millis, budget));
+        }
+        if (!violations.isEmpty()) {
+            System.out.println(queryCase.name() + " SQL: " + query.sql());
+            System.out.println(queryCase.name() + " plan: " + plan);
+        }
+        return new Result(queryCase, plan, p95Millis, violations);
+    }
+
+    private static List<QueryCase> cases(TodoRepository repository, TodoTombstoneRepository tombstones,
+                                         TransactionTemplate transactionTemplate, String userId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime rangeStart = now.minusDays(7);
+        LocalDateTime rangeEnd = now.plusDays(7);
+        Pageable page = PageRequest.of(0, 51);
+
+        Todo createdCursor = repository.findFirstPage(userId, page).get(49);
+        Todo dueCursor = repository.findFirstOverduePage(userId, now, PageRequest.of(0, 10)).get(4);
+        LocalDateTime createdKey = createdCursor.getCreatedAt();
+        LocalDateTime dueKey = dueCursor.getDueDate();
+        Long createdId = createdCursor.getId();
+        Long dueId = dueCursor.getId();
+
+        return List.of(
+            new QueryCase("findByUserIdOrderByCreatedAtDesc", "idx_todos_user_created", 50,
+                () -> repository.findByUserIdOrderByCreatedAtDesc(userId)),
+            new QueryCase("findByUserIdAndCompletedOrderByCreatedAtDesc", "idx_todos_user_completed_created", 30,
+                () -> repository.findByUserIdAndCompletedOrderByCreatedAtDesc(userId, false)),
+            new QueryCase("findByUserIdAndPriorityOrderByCreatedAtDesc", "idx_todos_user_priority_created", 30,
+                () -> repository.findByUserIdAndPriorityOrderByCreatedAtDesc(userId, Todo.Priority.HIGH)),
+            new QueryCase("streamByUserId", "idx_todos_user_created", 50,
+                () -> transactionTemplate.execute(status -> {
+                    try (Stream<Todo> todos = repository.streamByUserId(userId)) {
+                        return todos.count();
+                    }
+                })),
+            new QueryCase("findOverdueTodos", "idx_todos_user_due", 30,
+                () -> repository.findOverdueTodos(userId, now)),
+            new QueryCase("findTodosByDateRange", "idx_todos_user_due", 20,
+                () -> repository.findTodosByDateRange(userId, rangeStart, rangeEnd)),
+            new QueryCase("countByUserIdAndCompleted", "idx_todos_user_completed_created", 10,
+                () -> repository.countByUserIdAndCompleted(userId, true)),
+            new QueryCase("lockReminderCandidates", "idx_todos_reminder_queue", 50,
+                () -> transactionTemplate.execute(status -> repository.lockReminderCandidates(
+                    now.plusHours(24), now, Long.MAX_VALUE, PageRequest.of(0, 500)))),
+            new QueryCase("lockMatching (completed)", "idx_todos_user_completed_created", 20,
+                () -> transactionTemplate.execute(status -> repository.lockMatching(
+                    userId, new TodoFilter(true, null, null), 0L, 500))),
+            new QueryCase("findFirstPage", "idx_todos_user_created", 10,
+                () -> repository.findFirstPage(userId, page)),
+            new QueryCase("findPageAfter", "idx_todos_user_created", 10,
+                () -> repository.findPageAfter(userId, createdKey, createdId, page)),
+            new QueryCase("findFirstPageByStatus", "idx_todos_user_completed_created", 10,
+                () -> repository.findFirstPageByStatus(userId, false, page)),
+            new QueryCase("findPageByStatusAfter", "idx_todos_user_completed_created", 10,
+                () -> repository.findPageByStatusAfter(userId, false, createdKey, createdId, page)),
+            new QueryCase("findFirstPageByPriority", "idx_todos_user_priority_created", 10,
+                () -> repository.findFirstPageByPriority(userId, Todo.Priority.HIGH, page)),
+            new QueryCase("findPageByPriorityAfter", "idx_todos_user_priority_created", 10,
+                () -> repository.findPageByPriorityAfter(userId, Todo.Priority.HIGH, createdKey, createdId, page)),
+            new QueryCase("findFirstOverduePage", "idx_todos_user_due", 10,
+                () -> repository.findFirstOverduePage(userId, now, page)),
+            new QueryCase("findOverduePageAfter", "idx_todos_user_due", 10,
+                () -> repository.findOverduePageAfter(userId, now, dueKey, dueId, page)),
+            new QueryCase("findFirstDateRangePage", "idx_todos_user_due", 10,
+                () -> repository.findFirstDateRangePage(userId, rangeStart, rangeEnd, page)),
+            new QueryCase("findDateRangePageAfter", "idx_todos_user_due", 10,
+                () -> repository.findDateRangePageAfter(userId, rangeStart, rangeEnd, dueKey, dueId, page)),
+            new QueryCase("countGroupsByUserIds", "idx_todos_user_created", 10,
+                () -> repository.countGroupsByUserIds(List.of(userId))),
+            new QueryCase("countPendingDue", "idx_todos_user_due_completed", 10,
+                () -> repository.countPendingDue(userId, now, rangeEnd)),
+            new QueryCase("findTextByUserId", "idx_todos_user_", 50,
+                () -> repository.findTextByUserId(userId)),
+            new QueryCase("findTextAfter", "primary_key", 10,
+                () -> repository.findTextAfter(createdId, PageRequest.of(0, 1000))),
+            new QueryCase("findChangedAfter", "idx_todos_user_change", 10,
+                () -> repository.findChangedAfter(userId, 0L, createdId, PageRequest.of(0, 501))),
+            new QueryCase("findDeletedIds", "idx_tombstones_user_change", 5,
+                () -> tombstones.findDeletedIds(userId, 0L, Long.MAX_VALUE))
+        );
+    }
+}
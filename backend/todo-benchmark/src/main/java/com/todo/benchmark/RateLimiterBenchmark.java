@@ -0,0 +1,114 @@
+package com.todo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todo.service.ratelimit.AuthRateLimitFilter;
+import com.todo.service.ratelimit.RateLimit;
+import com.todo.service.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the auth rate limiter per request. The {@code acquire*} methods call {@link RateLimiter} directly:
+ * one hot key, the same key from four threads, 100k distinct keys, and a key that is always limited. The
+ * {@code filter*} methods pass a mock request through {@link AuthRateLimitFilter}: a login, whose body is
+ * buffered and parsed for the account, and a request to an endpoint that is not limited.
+ * Limits are set high enough that nothing but {@code acquireLimited} is ever refused.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private static final int KEYS = 100_000;
+    private static final String UNLIMITED = "1000000000/1s";
+
+    private RateLimiter rateLimiter;
+    private RateLimit unlimited;
+    private RateLimit limited;
+    private String[] keys;
+    private int next;
+    private AuthRateLimitFilter filter;
+    private byte[] loginBody;
+
+    @Setup
+    public void setUp() {
+        rateLimiter = new RateLimiter(1_000_000, 16, new SimpleMeterRegistry());
+        unlimited = RateLimit.parse(UNLIMITED);
+        limited = RateLimit.parse("1/1h");
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "10.0." + (i >> 8) + "." + (i & 0xff);
+        }
+        rateLimiter.tryAcquire("bench", "limited", limited);
+
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.rate-limit.login.ip", UNLIMITED)
+                .withProperty("app.rate-limit.login.account", UNLIMITED);
+        filter = new AuthRateLimitFilter(rateLimiter, new ObjectMapper(), environment, new SimpleMeterRegistry());
+        loginBody = "{\"usernameOrEmail\":\"benchmark-user\",\"password\":\"correct horse battery staple\"}"
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public long acquireHotKey() {
+        return rateLimiter.tryAcquire("bench", "10.0.0.1", unlimited);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long acquireHotKeyContended() {
+        return rateLimiter.tryAcquire("bench", "10.0.0.1", unlimited);
+    }
+
+    @Benchmark
+    public long acquireManyKeys() {
+        String key = keys[next];
+        next = next + 1 == KEYS ? 0 : next + 1;
+        return rateLimiter.tryAcquire("bench", key, unlimited);
+    }
+
+    @Benchmark
+    public long acquireLimited() {
+        return rateLimiter.tryAcquire("bench", "limited", limited);
+    }
+
+    @Benchmark
+    public int filterLogin() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setRemoteAddr("10.0.0.1");
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(loginBody);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public int filterNotLimited() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/verify-email");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,103 @@
+package com.todo.benchmark;
+
+import com.todo.service.dto.TodoBatchRequest;
+import com.todo.service.dto.TodoBatchResponse;
+import com.todo.service.entity.Todo;
+import com.todo.service.service.TodoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Create, toggle and delete {@code items} todos, either through one batch request per operation or one
+ * service call per item. Divide the score by {@code items} for the per-item cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class TodoBatchBenchmark {
+
+    private static final String USER_ID = "batch-user";
+
+    @Param({"1", "100", "10000"})
+    public int items;
+
+    private ConfigurableApplicationContext context;
+    private TodoService todoService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("jmh-batch");
+        SyntheticTodos.load(context.getBean(JdbcTemplate.class), 100_000, 100);
+        todoService = context.getBean(TodoService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int batch() {
+        TodoBatchRequest create = new TodoBatchRequest();
+        create.setCreate(newTodos());
+        List<Long> ids = todoService.applyBatch(USER_ID, create).getCreated().stream().map(Todo::getId).toList();
+
+        TodoBatchRequest toggle = new TodoBatchRequest();
+        toggle.setToggle(ids);
+        todoService.applyBatch(USER_ID, toggle);
+
+        TodoBatchRequest delete = new TodoBatchRequest();
+        delete.setDelete(ids);
+        TodoBatchResponse response = todoService.applyBatch(USER_ID, delete);
+        return response.getDeleted();
+    }
+
+    @Benchmark
+    public int perItem() {
+        List<Long> ids = new ArrayList<>(items);
+        for (Todo todo : newTodos()) {
+            ids.add(todoService.createTodo(todo).getId());
+        }
+        for (Long id : ids) {
+            todoService.toggleTodoStatus(id, USER_ID);
+        }
+        int deleted = 0;
+        for (Long id : ids) {
+            deleted += todoService.deleteTodo(id, USER_ID) ? 1 : 0;
+        }
+        return deleted;
+    }
+
+    private List<Todo> newTodos() {
+        List<Todo> todos = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            Todo todo = new Todo();
+            todo.setTitle("Imported todo " + i);
+            todo.setDescription("Created by the batch benchmark");
+            todo.setUserId(USER_ID);
+            todo.setPriority(Todo.Priority.values()[i % Todo.Priority.values().length]);
+            todos.add(todo);
+        }
+        return todos;
+    }
+}
@@ -0,0 +1,114 @@
+package com.todo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todo.service.repository.TodoRepository;
+import com.todo.service.service.TodoExportService;
+import com.todo.service.transfer.TodoFormat;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exports {@code bench.export.rows} todos of a single user through {@link TodoExportService} in both
+ * formats, and once the old way (load the whole list, then serialize it as one JSON array) for comparison.
+ * Output goes to a byte-counting sink. Reports throughput and the peak heap in use above the level
+ * measured just before each run; exits non-zero if an export missed rows.
+ *
+ * <pre>mvn compile exec:java@export-load -Dbench.export.rows=200000</pre>
+ */
+public class TodoExportLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int rows = Integer.getInteger("bench.export.rows", 200_000);
+
+        try (ConfigurableApplicationContext context = BenchmarkContext.start("export-load",
+                "--app.todo-search.rebuild-on-startup=false")) {
+            SyntheticTodos.load(context.getBean(JdbcTemplate.class), rows, 1);
+            String userId = SyntheticTodos.userId(0);
+            TodoExportService exportService = context.getBean(TodoExportService.class);
+            TodoRepository repository = context.getBean(TodoRepository.class);
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+            TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+
+            boolean failed = false;
+            for (TodoFormat format : TodoFormat.values()) {
+                CountingOutputStream out = new CountingOutputStream();
+                long exported = measure(format.name().toLowerCase(Locale.ROOT), out,
+                        () -> exportService.export(userId, format, out));
+                if (exported != rows) {
+                    System.err.printf(Locale.ROOT, "%s exported %,d of %,d todos%n", format, exported, rows);
+                    failed = true;
+                }
+            }
+            CountingOutputStream out = new CountingOutputStream();
+            measure("list + array", out, () -> transactionTemplate.execute(status -> {
+                byte[] json;
+                try {
+                    json = objectMapper.writeValueAsBytes(repository.findByUserIdOrderByCreatedAtDesc(userId));
+                    out.write(json);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                return (long) rows;
+            }));
+            if (failed) {
+                System.exit(1);
+            }
+        }
+    }
+
+    private static long measure(String name, CountingOutputStream out, Callable<Long> export) throws Exception {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long baseline = runtime.totalMemory() - runtime.freeMemory();
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                peak.accumulateAndGet(runtime.totalMemory() - runtime.freeMemory(), Math::max);
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.setDaemon(true);
+        sampler.start();
+
+        long start = System.nanoTime();
+        long exported = export.call();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        running.set(false);
+        sampler.join();
+
+        System.out.printf(Locale.ROOT, "%-12s %,d todos, %,.1f MB in %.2fs (%,.0f todos/s), peak heap +%,.1f MB%n",
+                name, exported, out.bytes() / 1e6, seconds, exported / seconds, (peak.get() - baseline) / 1e6);
+        return exported;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+
+        long bytes() {
+            return bytes;
+        }
+    }
+}
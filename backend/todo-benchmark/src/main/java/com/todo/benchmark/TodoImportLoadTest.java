@@ -0,0 +1,120 @@
+package com.todo.benchmark;
+
+import com.todo.service.dto.TodoImportResponse;
+import com.todo.service.service.TodoImportService;
+import com.todo.service.transfer.TodoFormat;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Imports {@code bench.import.rows} generated rows per format through {@link TodoImportService} into H2.
+ * The input is generated as it is read, so the test itself holds no more than one row. Every 1,000th row
+ * has a blank title and must be rejected. Exits non-zero when the counts are off or throughput falls
+ * below {@code bench.import.min-rate} rows per second.
+ *
+ * <pre>mvn compile exec:java@import-load -Dbench.import.rows=1000000</pre>
+ */
+public class TodoImportLoadTest {
+
+    private static final int INVALID_EVERY = 1_000;
+
+    public static void main(String[] args) throws Exception {
+        int rows = Integer.getInteger("bench.import.rows", 1_000_000);
+        double minRate = Double.parseDouble(System.getProperty("bench.import.min-rate", "10000"));
+
+        try (ConfigurableApplicationContext context = BenchmarkContext.start("import-load",
+                "--app.todo-search.rebuild-on-startup=false")) {
+            TodoImportService importService = context.getBean(TodoImportService.class);
+            Runtime runtime = Runtime.getRuntime();
+            boolean failed = false;
+            for (TodoFormat format : TodoFormat.values()) {
+                String userId = "import-" + format.getExtension();
+                System.gc();
+                long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+                long start = System.nanoTime();
+                TodoImportResponse response = importService.importTodos(userId, format, new GeneratedRows(format, rows));
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.gc();
+                long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+
+                long expectedFailed = rows / INVALID_EVERY;
+                double rate = response.getImported() / seconds;
+                System.out.printf(Locale.ROOT, "%-6s imported %,d, failed %,d in %.1fs (%,.0f rows/s), heap after GC %+,.1f MB%n",
+                        format.getExtension(), response.getImported(), response.getFailed(), seconds, rate,
+                        (heapAfter - heapBefore) / 1e6);
+                if (response.getImported() != rows - expectedFailed || response.getFailed() != expectedFailed) {
+                    System.err.printf(Locale.ROOT, "%s: expected %,d imported and %,d failed%n",
+                            format, rows - expectedFailed, expectedFailed);
+                    failed = true;
+                }
+                if (rate < minRate) {
+                    System.err.printf(Locale.ROOT, "%s: %,.0f rows/s is below %,.0f%n", format, rate, minRate);
+                    failed = true;
+                }
+            }
+            if (failed) {
+                System.exit(1);
+            }
+        }
+    }
+
+    // Produces the rows one at a time as the importer reads them
+    private static final class GeneratedRows extends InputStream {
+
+        private final TodoFormat format;
+        private final int rows;
+        private int row;
+        private byte[] buffer;
+        private int position;
+
+        GeneratedRows(TodoFormat format, int rows) {
+            this.format = format;
+            this.rows = rows;
+            this.buffer = format == TodoFormat.CSV
+                    ? "title,description,completed,priority,dueDate\n".getBytes(StandardCharsets.UTF_8)
+                    : new byte[0];
+        }
+
+        @Override
+        public int read() {
+            if (!fill()) {
+                return -1;
+            }
+            return buffer[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.length - position);
+            System.arraycopy(buffer, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        private boolean fill() {
+            while (position == buffer.length) {
+                if (row == rows) {
+                    return false;
+                }
+                row++;
+                String title = row % INVALID_EVERY == 0 ? "" : "Imported todo " + row;
+                String line = format == TodoFormat.CSV
+                        ? title + ",\"Row " + row + ", from the load test\"," + (row % 3 == 0) + ",HIGH,2030-01-01T09:00:00\n"
+                        : "{\"title\":\"" + title + "\",\"description\":\"Row " + row + " from the load test\","
+                            + "\"completed\":" + (row % 3 == 0) + ",\"priority\":\"HIGH\",\"dueDate\":\"2030-01-01T09:00:00\"}\n";
+                buffer = line.getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.todo.benchmark;
+
+import com.todo.service.entity.Todo;
+import com.todo.service.search.TodoSearchIndex;
+import com.todo.service.service.TodoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search over one user with 100,000 todos: the index lookup alone, and the full service call that also
+ * loads the matching rows from H2. {@code "todo 4217"} is selective, {@code "42"} is a prefix matching
+ * about 1,100 todos and {@code "synthetic gen"} matches every todo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoSearchBenchmark {
+
+    private static final int TODOS = 100_000;
+    private static final int LIMIT = 50;
+
+    @Param({"todo 4217", "42", "synthetic gen"})
+    public String query;
+
+    private ConfigurableApplicationContext context;
+    private TodoSearchIndex todoSearchIndex;
+    private TodoService todoService;
+    private String userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("jmh-search", "--app.todo-search.rebuild-on-startup=false");
+        SyntheticTodos.load(context.getBean(JdbcTemplate.class), TODOS, 1);
+        todoSearchIndex = context.getBean(TodoSearchIndex.class);
+        todoService = context.getBean(TodoService.class);
+        userId = SyntheticTodos.userId(0);
+        // The first search builds the user's index from the database
+        todoSearchIndex.search(userId, query, LIMIT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Long> index() {
+        return todoSearchIndex.search(userId, query, LIMIT);
+    }
+
+    @Benchmark
+    public List<Todo> searchTodos() {
+        return todoService.searchTodos(userId, query, LIMIT);
+    }
+}
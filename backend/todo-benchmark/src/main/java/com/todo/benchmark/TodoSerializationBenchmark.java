@@ -0,0 +1,48 @@
+package com.todo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todo.service.entity.Todo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rendering a List&lt;Todo&gt; response body with the same ObjectMapper defaults Spring MVC uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoSerializationBenchmark {
+
+    @Param({"10", "1000", "50000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<Todo> todos;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        todos = Fixtures.todos(size);
+    }
+
+    @Benchmark
+    public byte[] serializeTodoList() throws Exception {
+        return objectMapper.writeValueAsBytes(todos);
+    }
+}
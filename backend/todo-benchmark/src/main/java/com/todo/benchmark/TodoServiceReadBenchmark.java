@@ -0,0 +1,108 @@
+package com.todo.benchmark;
+
+import com.todo.service.cache.TodoCache;
+import com.todo.service.entity.Todo;
+import com.todo.service.service.TodoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TodoService read methods against embedded H2 with 1,000 todos per user. The full, status and priority
+ * lists are served from {@code TodoCache} after the first call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoServiceReadBenchmark {
+
+    private static final int USERS = 100;
+    private static final int TODOS_PER_USER = 1_000;
+
+    private ConfigurableApplicationContext context;
+    private TodoService todoService;
+    private TodoCache todoCache;
+    private String userId;
+    private Long todoId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("jmh-reads");
+        SyntheticTodos.load(context.getBean(JdbcTemplate.class), USERS * TODOS_PER_USER, USERS);
+        todoService = context.getBean(TodoService.class);
+        todoCache = context.getBean(TodoCache.class);
+        userId = SyntheticTodos.userId(7);
+        todoId = todoService.getAllTodosByUserId(userId).get(0).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Todo> getAllTodosByUserId() {
+        return todoService.getAllTodosByUserId(userId);
+    }
+
+    // The first read after a write: cache miss, database query and a fresh cache entry
+    @Benchmark
+    public List<Todo> getAllTodosByUserIdAfterWrite() {
+        todoCache.invalidate(userId);
+        return todoService.getAllTodosByUserId(userId);
+    }
+
+    @Benchmark
+    public List<Todo> getTodosByStatus() {
+        return todoService.getTodosByStatus(userId, false);
+    }
+
+    @Benchmark
+    public List<Todo> getTodosByPriority() {
+        return todoService.getTodosByPriority(userId, Todo.Priority.HIGH);
+    }
+
+    @Benchmark
+    public List<Todo> getOverdueTodos() {
+        return todoService.getOverdueTodos(userId);
+    }
+
+    @Benchmark
+    public List<Todo> getTodosByDateRange() {
+        LocalDateTime now = LocalDateTime.now();
+        return todoService.getTodosByDateRange(userId, now.minusDays(7), now.plusDays(7));
+    }
+
+    @Benchmark
+    public Object getTodoById() {
+        return todoService.getTodoById(todoId, userId);
+    }
+
+    @Benchmark
+    public Object getTodosPage() {
+        return todoService.getTodosPage(userId, 50, null);
+    }
+
+    @Benchmark
+    public long getCompletedTodoCount() {
+        return todoService.getCompletedTodoCount(userId);
+    }
+}
@@ -0,0 +1,197 @@
+package com.todo.benchmark;
+
+import com.todo.service.entity.Todo;
+import com.todo.service.service.TodoService;
+import com.todo.service.stream.TodoEventStream;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opens {@code bench.stream.connections} idle SSE streams on {@code /api/todos/stream}, spread over
+ * {@code bench.stream.users} users, then creates {@code bench.stream.writes} todos through {@link TodoService}
+ * and measures how long each takes to reach every stream of its user. Reports the platform thread count
+ * and the heap per open stream; exits non-zero if a stream failed to open or an event went missing.
+ * <p>
+ * Client and server share the JVM, so each stream costs two sockets: raise the open file limit first.
+ * One loopback address runs out of ephemeral ports near 28,000 connections, so the clients bind to
+ * 127.0.0.2, 127.0.0.3 and so on.
+ *
+ * <pre>ulimit -n 200000
+ * mvn compile exec:java@stream-load -Dbench.stream.connections=50000</pre>
+ */
+public class TodoStreamLoadTest {
+
+    private static final int CONNECTIONS_PER_ADDRESS = 20_000;
+    private static final String TITLE_PREFIX = "Stream todo ";
+
+    public static void main(String[] args) throws Exception {
+        int connections = Integer.getInteger("bench.stream.connections", 50_000);
+        int users = Integer.getInteger("bench.stream.users", 10_000);
+        int writes = Integer.getInteger("bench.stream.writes", 2_000);
+
+        try (ConfigurableApplicationContext context = BenchmarkContext.startServer("stream-load", new Class<?>[0],
+                "--app.todo-search.rebuild-on-startup=false",
+                "--server.tomcat.max-connections=" + (connections + 1_000),
+                "--server.tomcat.accept-count=10000")) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            TodoEventStream eventStream = context.getBean(TodoEventStream.class);
+            TodoService todoService = context.getBean(TodoService.class);
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            Runtime runtime = Runtime.getRuntime();
+
+            System.gc();
+            long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+            int threadsBefore = threads.getThreadCount();
+
+            List<HttpClient> clients = new ArrayList<>();
+            for (int i = 0; i < connections; i += CONNECTIONS_PER_ADDRESS) {
+                clients.add(HttpClient.newBuilder()
+                        .executor(Executors.newVirtualThreadPerTaskExecutor())
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .localAddress(InetAddress.getByName("127.0.0." + (2 + clients.size())))
+                        .connectTimeout(Duration.ofSeconds(30))
+                        .build());
+            }
+
+            CountDownLatch ready = new CountDownLatch(connections);
+            AtomicLong failed = new AtomicLong();
+            ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+            // Keeps the accept queue from overflowing while tens of thousands of streams open
+            Semaphore connecting = new Semaphore(2_000);
+            long openStart = System.nanoTime();
+            for (int i = 0; i < connections; i++) {
+                String userId = "stream-user-" + (i % users);
+                HttpRequest request = HttpRequest.newBuilder(
+                        URI.create("http://127.0.0.1:" + port + "/api/todos/stream?userId=" + userId)).build();
+                connecting.acquire();
+                EventListener listener = new EventListener(ready, connecting, latencies);
+                clients.get(i / CONNECTIONS_PER_ADDRESS)
+                        .sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(listener))
+                        .whenComplete((response, error) -> {
+                            // A stream only completes when it closes, which must not happen during the test
+                            failed.incrementAndGet();
+                            listener.opened();
+                        });
+            }
+            if (!ready.await(5, TimeUnit.MINUTES)) {
+                System.err.printf(Locale.ROOT, "%,d of %,d streams did not open%n", ready.getCount(), connections);
+            }
+            double openSeconds = (System.nanoTime() - openStart) / 1e9;
+            System.gc();
+            long heapOpen = runtime.totalMemory() - runtime.freeMemory();
+            int threadsOpen = threads.getThreadCount();
+            int serverStreams = eventStream.connectionCount();
+
+            long expected = 0;
+            for (int w = 0; w < writes; w++) {
+                int user = w * 7919 % users;
+                expected += connections / users + (user < connections % users ? 1 : 0);
+                Todo todo = new Todo();
+                todo.setUserId("stream-user-" + user);
+                todo.setTitle(TITLE_PREFIX + System.nanoTime());
+                todoService.createTodo(todo);
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+            while (latencies.size() < expected && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            System.out.printf(Locale.ROOT, "%,d streams open on the server (%,d requested) in %.1fs%n",
+                    serverStreams, connections, openSeconds);
+            System.out.printf(Locale.ROOT, "platform threads %d before, %d with streams open; heap +%,.1f KB per stream%n",
+                    threadsBefore, threadsOpen, (heapOpen - heapBefore) / 1e3 / Math.max(1, serverStreams));
+            System.out.printf(Locale.ROOT, "%,d writes, %,d of %,d events delivered, p50 %.2f ms, p99 %.2f ms%n",
+                    writes, sorted.length, expected, percentile(sorted, 0.50), percentile(sorted, 0.99));
+
+            boolean passed = ready.getCount() == 0 && failed.get() == 0 && sorted.length == expected;
+            if (!passed) {
+                System.err.printf(Locale.ROOT, "%,d streams failed or closed, %,d events missing%n",
+                        failed.get(), expected - sorted.length);
+            }
+            System.exit(passed ? 0 : 1);
+        }
+    }
+
+    private static double percentile(long[] sortedNanos, double p) {
+        if (sortedNanos.length == 0) {
+            return Double.NaN;
+        }
+        return sortedNanos[(int) Math.min(sortedNanos.length - 1, Math.ceil(p * sortedNanos.length) - 1)] / 1e6;
+    }
+
+    // Reads the event stream line by line; latency comes from the send time embedded in the todo title
+    private static final class EventListener implements Flow.Subscriber<String> {
+
+        private final CountDownLatch ready;
+        private final Semaphore connecting;
+        private final ConcurrentLinkedQueue<Long> latencies;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private String event;
+
+        EventListener(CountDownLatch ready, Semaphore connecting, ConcurrentLinkedQueue<Long> latencies) {
+            this.ready = ready;
+            this.connecting = connecting;
+            this.latencies = latencies;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (line.startsWith("event:")) {
+                event = line.substring("event:".length()).trim();
+            } else if (line.startsWith("data:") && event != null) {
+                if (event.equals("ready")) {
+                    ready.countDown();
+                    opened();
+                } else if (event.equals("created")) {
+                    long received = System.nanoTime();
+                    int start = line.indexOf(TITLE_PREFIX) + TITLE_PREFIX.length();
+                    int end = line.indexOf('"', start);
+                    latencies.add(received - Long.parseLong(line.substring(start, end)));
+                }
+            } else if (line.isEmpty()) {
+                event = null;
+            }
+        }
+
+        // Done connecting, one way or the other: let the next stream start
+        void opened() {
+            if (released.compareAndSet(false, true)) {
+                connecting.release();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
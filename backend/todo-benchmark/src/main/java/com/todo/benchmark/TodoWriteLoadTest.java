@@ -0,0 +1,149 @@
+package com.todo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todo.service.dto.TodoPatch;
+import com.todo.service.entity.Todo;
+import com.todo.service.service.TodoService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Edits and toggles single todos through the read-then-write paths ({@code PUT}, which is also how toggles
+ * used to be made) and the single-statement ones ({@code PATCH} and the toggle), and reports the SQL
+ * statements and latency per write. {@link DatabaseLatency} adds {@code bench.write.latency-us} to every
+ * statement, standing in for the MySQL round trip.
+ * <p>
+ * Then {@code bench.write.threads} virtual threads toggle one todo {@code bench.write.toggles} times each.
+ * Exits non-zero if a toggle was lost or the completed counter no longer matches the row.
+ *
+ * <pre>mvn compile exec:java@write-load -Dbench.write.latency-us=500</pre>
+ */
+public class TodoWriteLoadTest {
+
+    private static final String USER_ID = "write-user";
+    private static final String RACE_USER_ID = "race-user";
+    private static final int TODOS = 100;
+
+    public static void main(String[] args) throws Exception {
+        int writes = Integer.getInteger("bench.write.ops", 2_000);
+        long latencyMicros = Long.getLong("bench.write.latency-us", 500);
+        int threads = Integer.getInteger("bench.write.threads", 16);
+        int toggles = Integer.getInteger("bench.write.toggles", 100);
+
+        try (ConfigurableApplicationContext context = BenchmarkContext.start("write-load",
+                new Class<?>[] {DatabaseLatency.class},
+                "--app.todo-search.rebuild-on-startup=false",
+                "--spring.jpa.properties.hibernate.generate_statistics=true")) {
+            TodoService todoService = context.getBean(TodoService.class);
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+            Statistics statistics = context.getBean(EntityManagerFactory.class)
+                    .unwrap(SessionFactory.class).getStatistics();
+
+            long[] ids = new long[TODOS];
+            boolean[] completed = new boolean[TODOS];
+            for (int i = 0; i < TODOS; i++) {
+                ids[i] = todoService.createTodo(newTodo(USER_ID, i)).getId();
+            }
+
+            Map<String, Write> cases = new LinkedHashMap<>();
+            cases.put("PUT title", i -> todoService.updateTodo(ids[i], details(i, "Edited " + i, completed[i]), USER_ID));
+            cases.put("PATCH title", i -> todoService.patchTodo(ids[i], USER_ID,
+                    patch(objectMapper, Map.of("title", "Patched " + i)), null));
+            cases.put("PUT completed", i -> {
+                completed[i] = !completed[i];
+                todoService.updateTodo(ids[i], details(i, "Edited " + i, completed[i]), USER_ID);
+            });
+            cases.put("toggle", i -> {
+                completed[i] = !completed[i];
+                todoService.toggleTodoStatus(ids[i], USER_ID);
+            });
+            cases.put("PATCH completed", i -> {
+                completed[i] = !completed[i];
+                todoService.patchTodo(ids[i], USER_ID, patch(objectMapper, Map.of("completed", completed[i])), null);
+            });
+
+            // Warm up at full speed, then measure with the simulated round trip
+            for (Write write : cases.values()) {
+                for (int op = 0; op < writes; op++) {
+                    write.apply(op % TODOS);
+                }
+            }
+            DatabaseLatency.set(latencyMicros);
+            System.out.printf(Locale.ROOT, "%,d writes per case, %d µs per statement%n", writes, latencyMicros);
+            for (Map.Entry<String, Write> entry : cases.entrySet()) {
+                long[] nanos = new long[writes];
+                long statementsBefore = statistics.getPrepareStatementCount();
+                for (int op = 0; op < writes; op++) {
+                    long start = System.nanoTime();
+                    entry.getValue().apply(op % TODOS);
+                    nanos[op] = System.nanoTime() - start;
+                }
+                double statements = (statistics.getPrepareStatementCount() - statementsBefore) / (double) writes;
+                Arrays.sort(nanos);
+                System.out.printf(Locale.ROOT, "%-16s %4.1f statements, p50 %6.2f ms, p99 %6.2f ms%n",
+                        entry.getKey(), statements, percentile(nanos, 0.50), percentile(nanos, 0.99));
+            }
+
+            long raceId = todoService.createTodo(newTodo(RACE_USER_ID, 0)).getId();
+            long start = System.nanoTime();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int t = 0; t < threads; t++) {
+                    executor.execute(() -> {
+                        for (int i = 0; i < toggles; i++) {
+                            todoService.toggleTodoStatus(raceId, RACE_USER_ID);
+                        }
+                    });
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            int total = threads * toggles;
+            boolean expected = total % 2 == 1;
+            boolean actual = todoService.getTodoById(raceId, RACE_USER_ID).orElseThrow().isCompleted();
+            long counted = todoService.getCompletedTodoCount(RACE_USER_ID);
+            System.out.printf(Locale.ROOT, "%,d concurrent toggles on one todo in %.1fs: completed %b (expected %b), " +
+                    "completed counter %d%n", total, seconds, actual, expected, counted);
+            if (actual != expected || counted != (actual ? 1 : 0)) {
+                System.err.println("Lost toggle or counter drift");
+                System.exit(1);
+            }
+        }
+    }
+
+    private static Todo newTodo(String userId, int i) {
+        Todo todo = new Todo();
+        todo.setUserId(userId);
+        todo.setTitle("Write todo " + i);
+        todo.setDescription("Created by the write load test");
+        return todo;
+    }
+
+    // PUT replaces every field, so the details carry the current values of the ones left alone
+    private static Todo details(int i, String title, boolean completed) {
+        Todo todo = newTodo(USER_ID, i);
+        todo.setTitle(title);
+        todo.setCompleted(completed);
+        return todo;
+    }
+
+    private static TodoPatch patch(ObjectMapper objectMapper, Map<String, Object> fields) {
+        return TodoPatch.from(objectMapper.valueToTree(fields));
+    }
+
+    private static double percentile(long[] sortedNanos, double p) {
+        return sortedNanos[(int) Math.min(sortedNanos.length - 1, Math.ceil(p * sortedNanos.length) - 1)] / 1e6;
+    }
+
+    @FunctionalInterface
+    private interface Write {
+        void apply(int index);
+    }
+}
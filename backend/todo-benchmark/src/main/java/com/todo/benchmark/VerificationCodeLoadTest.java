@@ -0,0 +1,151 @@
+package com.todo.benchmark;
+
+import com.todo.service.entity.VerificationCode;
+import com.todo.service.verification.InMemoryVerificationCodeStore;
+import com.todo.service.verification.VerificationCodeStore;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Signup load against both {@link VerificationCodeStore} backends. Each signup saves an email verification
+ * code, tries a wrong code, then consumes the right one, from {@code bench.verify.threads} virtual threads.
+ * The stores start with {@code bench.verify.backlog} codes of other users, half of them already expired.
+ * {@link DatabaseLatency} adds {@code bench.verify.latency-us} to every JPA statement.
+ * <p>
+ * Reports signups per second and the p50/p99 of each step per backend, the plan of the JPA lookup, and how
+ * long the chunked purge of the expired half takes. Exits non-zero if a right code was refused or a wrong
+ * one accepted.
+ *
+ * <pre>mvn compile exec:java@verification-load -Dbench.verify.signups=20000 -Dbench.verify.latency-us=500</pre>
+ */
+public class VerificationCodeLoadTest {
+
+    private static final VerificationCode.CodeType TYPE = VerificationCode.CodeType.EMAIL_VERIFICATION;
+    private static final Duration TTL = Duration.ofMinutes(15);
+
+    public static void main(String[] args) throws Exception {
+        int signups = Integer.getInteger("bench.verify.signups", 20_000);
+        int threads = Integer.getInteger("bench.verify.threads", 64);
+        int backlog = Integer.getInteger("bench.verify.backlog", 500_000);
+        long latencyMicros = Long.getLong("bench.verify.latency-us", 500);
+
+        boolean passed;
+        try (ConfigurableApplicationContext context = BenchmarkContext.start("verification-load",
+                new Class<?>[] {DatabaseLatency.class},
+                "--app.todo-search.rebuild-on-startup=false",
+                "--app.email.verification.store=jpa")) {
+            VerificationCodeStore jpa = context.getBean(VerificationCodeStore.class);
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            loadBacklog(jdbcTemplate, backlog);
+
+            System.out.println("jpa lookup plan: " + jdbcTemplate.queryForObject(
+                    "EXPLAIN SELECT id FROM verification_codes WHERE email = ? AND type = ? AND code = ?",
+                    String.class, "backlog-1@example.com", TYPE.name(), code(1)).replaceAll("\\s+", " "));
+
+            run("memory (warm-up)", memoryStore(backlog), Math.min(signups, 5_000), threads);
+            run("jpa (warm-up)", jpa, Math.min(signups, 1_000), threads);
+            DatabaseLatency.set(latencyMicros);
+            System.out.printf(Locale.ROOT, "%,d signups, %d threads, %,d codes of other users, %d µs per statement%n",
+                    signups, threads, backlog, latencyMicros);
+            passed = run("jpa", jpa, signups, threads);
+            passed &= run("memory", memoryStore(backlog), signups, threads);
+
+            long start = System.nanoTime();
+            int purged = jpa.purgeExpired();
+            System.out.printf(Locale.ROOT, "jpa purge: %,d expired codes in %.2f s%n",
+                    purged, (System.nanoTime() - start) / 1e9);
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    // Half the rows expired an hour ago, half are still outstanding
+    private static void loadBacklog(JdbcTemplate jdbcTemplate, int backlog) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp expired = Timestamp.valueOf(now.minusHours(1));
+        Timestamp live = Timestamp.valueOf(now.plus(TTL));
+        Timestamp created = Timestamp.valueOf(now);
+        for (int from = 0; from < backlog; from += 10_000) {
+            int first = from;
+            int size = Math.min(10_000, backlog - from);
+            jdbcTemplate.batchUpdate("INSERT INTO verification_codes (email, code, type, used, expires_at, created_at) " +
+                            "VALUES (?, ?, ?, false, ?, ?)",
+                    IntStream.range(first, first + size)
+                            .mapToObj(i -> new Object[] {"backlog-" + i + "@example.com", code(i), TYPE.name(),
+                                    i % 2 == 0 ? expired : live, created})
+                            .toList());
+        }
+    }
+
+    private static InMemoryVerificationCodeStore memoryStore(int backlog) {
+        InMemoryVerificationCodeStore store = new InMemoryVerificationCodeStore(16, 1000, 1024, 5);
+        for (int i = 1; i < backlog; i += 2) {
+            store.save("backlog-" + i + "@example.com", TYPE, code(i), TTL);
+        }
+        return store;
+    }
+
+    private static boolean run(String name, VerificationCodeStore store, int signups, int threads) throws Exception {
+        long[] save = new long[signups];
+        long[] wrong = new long[signups];
+        long[] consume = new long[signups];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        String prefix = name.replace(' ', '-') + "-" + System.nanoTime() + "-";
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < threads; t++) {
+                executor.execute(() -> {
+                    for (int i = next.getAndIncrement(); i < signups; i = next.getAndIncrement()) {
+                        String email = prefix + i + "@example.com";
+                        long t0 = System.nanoTime();
+                        store.save(email, TYPE, code(i), TTL);
+                        long t1 = System.nanoTime();
+                        boolean wrongAccepted = store.consume(email, TYPE, code(i + 1));
+                        long t2 = System.nanoTime();
+                        boolean rightAccepted = store.consume(email, TYPE, code(i));
+                        long t3 = System.nanoTime();
+                        save[i] = t1 - t0;
+                        wrong[i] = t2 - t1;
+                        consume[i] = t3 - t2;
+                        if (wrongAccepted || !rightAccepted) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf(Locale.ROOT, "%-18s %,9.0f signups/s  save %s  wrong code %s  consume %s%n",
+                name, signups / seconds, percentiles(save), percentiles(wrong), percentiles(consume));
+        if (failures.get() > 0) {
+            System.err.printf(Locale.ROOT, "%s: %,d signups refused the right code or took a wrong one%n",
+                    name, failures.get());
+        }
+        return failures.get() == 0;
+    }
+
+    private static String code(int i) {
+        return Integer.toString(100_000 + i % 900_000);
+    }
+
+    private static String percentiles(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return String.format(Locale.ROOT, "p50 %7.3f ms p99 %7.3f ms", percentile(sorted, 0.50), percentile(sorted, 0.99));
+    }
+
+    private static double percentile(long[] sortedNanos, double p) {
+        return sortedNanos[(int) Math.min(sortedNanos.length - 1, Math.ceil(p * sortedNanos.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,182 @@
+package com.todo.benchmark;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Boots the service with Tomcat on platform threads or, with {@code -Dbench.vt.mode=virtual}, with
+ * {@code app.threads.virtual.enabled}, and drives it with {@code bench.vt.clients} concurrent
+ * clients reading summaries and todo pages. Run each mode in its own JVM: a second run in the same
+ * JVM inherits the first one's JIT warm-up and looks faster than it is. {@link DatabaseLatency} gives every statement a network-like
+ * round trip, so requests hold their connection the way they would against MySQL.
+ * <p>
+ * While measuring it records {@code jdk.VirtualThreadPinned} events (pinned for more than 1 ms) and
+ * prints them by the first non-JDK frame, which is where a {@code synchronized} block was entered
+ * around blocking work.
+ *
+ * <pre>mvn compile exec:java@virtual-threads -Dbench.vt.mode=platform
+ * mvn compile exec:java@virtual-threads -Dbench.vt.mode=virtual</pre>
+ */
+public class VirtualThreadLoadTest {
+
+    record Result(String mode, long requests, Map<String, Long> errors, double seconds, double p50Millis,
+                  double p99Millis, int peakPlatformThreads, Map<String, Long> pinned) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("bench.vt.clients", 2_000);
+        int seconds = Integer.getInteger("bench.vt.seconds", 20);
+        int warmupSeconds = Integer.getInteger("bench.vt.warmup-seconds", 40);
+        int rows = Integer.getInteger("bench.vt.rows", 200_000);
+        int users = Integer.getInteger("bench.vt.users", 2_000);
+        long dbLatencyMicros = Long.getLong("bench.vt.db-latency-us", 1_000);
+        String poolSize = System.getProperty("bench.vt.pool-size", "10");
+        String mode = System.getProperty("bench.vt.mode", "virtual");
+
+        Result result;
+        DatabaseLatency.set(0);
+        try (ConfigurableApplicationContext context = BenchmarkContext.startServer("vt_" + mode,
+                new Class<?>[] {DatabaseLatency.class},
+                "--app.threads.virtual.enabled=" + mode.equals("virtual"),
+                "--spring.datasource.hikari.maximum-pool-size=" + poolSize)) {
+            SyntheticTodos.load(context.getBean(JdbcTemplate.class), rows, users);
+            DatabaseLatency.set(dbLatencyMicros);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            drive(mode, port, clients, users, warmupSeconds, null);
+            Map<String, Long> pinned = new ConcurrentHashMap<>();
+            try (RecordingStream pins = new RecordingStream()) {
+                pins.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(1)).withStackTrace();
+                pins.onEvent("jdk.VirtualThreadPinned", event -> pinned.merge(pinnedAt(event), 1L, Long::sum));
+                pins.startAsync();
+                result = drive(mode, port, clients, users, seconds, pinned);
+            }
+        }
+
+        System.out.printf(Locale.ROOT, "%,d clients, %d s, %,d us per statement, pool size %s%n",
+                clients, seconds, dbLatencyMicros, poolSize);
+        System.out.printf(Locale.ROOT, "%-9s %12s %10s %10s %10s %8s %16s%n",
+                "mode", "requests/s", "p50 ms", "p99 ms", "errors", "pinned", "platform threads");
+        System.out.printf(Locale.ROOT, "%-9s %,12.0f %10.1f %10.1f %,10d %,8d %16d%n",
+                result.mode(), result.requests() / result.seconds(), result.p50Millis(), result.p99Millis(),
+                total(result.errors()), total(result.pinned()), result.peakPlatformThreads());
+        result.errors().forEach((error, count) ->
+                System.out.printf(Locale.ROOT, "errors %,6d x %s%n", count, error));
+        result.pinned().entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(10)
+                .forEach(entry -> System.out.printf(Locale.ROOT, "pinned %,6d x %s%n", entry.getValue(), entry.getKey()));
+        System.exit(0);
+    }
+
+    private static Result drive(String mode, int port, int clients, int users, int seconds,
+                                Map<String, Long> pinned) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        ExecutorService clientCallbacks = Executors.newVirtualThreadPerTaskExecutor();
+        // Virtual callback threads keep the client out of the platform thread count
+        HttpClient httpClient = HttpClient.newBuilder()
+                .executor(clientCallbacks)
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        Map<String, Long> errors = new ConcurrentHashMap<>();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        long start = System.nanoTime();
+
+        List<Future<long[]>> latencies = new ArrayList<>(clients);
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                SplittableRandom random = new SplittableRandom(c);
+                latencies.add(clientThreads.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        String userId = SyntheticTodos.userId(random.nextInt(users));
+                        String path = random.nextBoolean()
+                                ? "/api/todos/summary?userId=" + userId
+                                : "/api/todos?limit=20&userId=" + userId;
+                        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + path))
+                                .timeout(Duration.ofSeconds(60))
+                                .build();
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.merge("HTTP " + response.statusCode(), 1L, Long::sum);
+                            }
+                        } catch (Exception e) {
+                            errors.merge(e.getClass().getSimpleName(), 1L, Long::sum);
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - sent;
+                    }
+                    return Arrays.copyOf(samples, count);
+                }));
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        clientCallbacks.shutdown();
+
+        long[] all = latencies.stream().map(VirtualThreadLoadTest::join).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(mode, all.length, errors, elapsed, percentile(all, 0.50), percentile(all, 0.99),
+                threads.getPeakThreadCount(), pinned == null ? Map.of() : pinned);
+    }
+
+    private static long total(Map<String, Long> counts) {
+        return counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    // First frame outside the JDK: the library or application code that pinned the thread
+    private static String pinnedAt(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "(no stack trace)";
+        }
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        return "(JDK only)";
+    }
+
+    private static long[] join(Future<long[]> future) {
+        try {
+            return future.get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static double percentile(long[] sortedNanos, double p) {
+        if (sortedNanos.length == 0) {
+            return Double.NaN;
+        }
+        return sortedNanos[(int) Math.min(sortedNanos.length - 1, Math.ceil(p * sortedNanos.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,182 @@
+package com.todo.service.availability;
+
+import com.todo.service.repository.UserRepository;
+import com.todo.service.repository.UserRepository.UserHandles;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Answers whether a username or email is taken, with a Bloom filter of each in front of the database: a
+ * filter miss means free without a query, and only probable hits are checked with {@code existsBy*}.
+ * <p>
+ * The filters are built from the {@code users} table once the application is up and rebuilt every
+ * {@code rebuild-interval-ms}, sized for the current users times {@code headroom}, and {@link #add} covers
+ * users registered on this node in between. Users registered on other nodes since the last rebuild can be
+ * reported free; registration itself still checks the database. Keys are lower-cased and stripped of
+ * accents, like the database's case- and accent-insensitive collation, so the filter never misses a handle
+ * the database would call a duplicate.
+ */
+@Component
+@Slf4j
+public class UserAvailabilityIndex {
+
+    private static final int REBUILD_PAGE_SIZE = 1000;
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private record Filters(BloomFilter usernames, BloomFilter emails) {
+
+        void add(String username, String email) {
+            usernames.add(normalize(username));
+            emails.add(normalize(email));
+        }
+    }
+
+    private record Checks(Counter filtered, Counter taken, Counter falsePositive) {
+    }
+
+    private final UserRepository userRepository;
+    private final double falsePositiveRate;
+    private final double headroom;
+    private final int minCapacity;
+    private final ReentrantLock rebuilding = new ReentrantLock();
+    private final Checks usernameChecks;
+    private final Checks emailChecks;
+    // Null until the first build, and the database answers every check meanwhile
+    private volatile Filters current;
+    // Set while a rebuild scans the table, so users registered meanwhile land in the new filters too
+    private volatile Filters building;
+
+    public UserAvailabilityIndex(UserRepository userRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.user-availability.false-positive-rate:0.01}") double falsePositiveRate,
+                                 @Value("${app.user-availability.headroom:2.0}") double headroom,
+                                 @Value("${app.user-availability.min-capacity:10000}") int minCapacity) {
+        this.userRepository = userRepository;
+        this.falsePositiveRate = falsePositiveRate;
+        this.headroom = Math.max(1, headroom);
+        this.minCapacity = Math.max(1, minCapacity);
+        this.usernameChecks = checks(meterRegistry, "username");
+        this.emailChecks = checks(meterRegistry, "email");
+        gauges(meterRegistry, "username", Filters::usernames);
+        gauges(meterRegistry, "email", Filters::emails);
+    }
+
+    public boolean isUsernameTaken(String username) {
+        Filters filters = current;
+        return isTaken(filters == null ? null : filters.usernames(), username, userRepository::existsByUsername,
+                usernameChecks);
+    }
+
+    public boolean isEmailTaken(String email) {
+        Filters filters = current;
+        return isTaken(filters == null ? null : filters.emails(), email, userRepository::existsByEmail, emailChecks);
+    }
+
+    // Call once the user is saved. Reads building before current: a rebuild publishes in the opposite order
+    public void add(String username, String email) {
+        Filters next = building;
+        Filters filters = current;
+        if (next != null) {
+            next.add(username, email);
+        }
+        if (filters != null && filters != next) {
+            filters.add(username, email);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.user-availability.rebuild-interval-ms:3600000}",
+               initialDelayString = "${app.user-availability.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        if (!rebuilding.tryLock()) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            long capacity = Math.max(minCapacity, (long) (userRepository.count() * headroom));
+            Filters next = new Filters(new BloomFilter(capacity, falsePositiveRate),
+                    new BloomFilter(capacity, falsePositiveRate));
+            building = next;
+            long afterId = 0;
+            long users = 0;
+            List<UserHandles> page;
+            do {
+                page = userRepository.findHandlesAfter(afterId, PageRequest.of(0, REBUILD_PAGE_SIZE));
+                for (UserHandles handles : page) {
+                    next.add(handles.getUsername(), handles.getEmail());
+                    afterId = handles.getId();
+                }
+                users += page.size();
+            } while (page.size() == REBUILD_PAGE_SIZE);
+            current = next;
+            log.info("Built user availability filters for {} users in {} ms: capacity {}, {} KB per filter, " +
+                            "{} hashes, {}% false positives at capacity",
+                    users, System.currentTimeMillis() - start, capacity, next.usernames().sizeInBytes() / 1024,
+                    next.usernames().hashCount(), falsePositiveRate * 100);
+        } finally {
+            building = null;
+            rebuilding.unlock();
+        }
+    }
+
+    private static boolean isTaken(BloomFilter filter, String value, Predicate<String> exists, Checks checks) {
+        if (filter != null && !filter.mightContain(normalize(value))) {
+            checks.filtered().increment();
+            return false;
+        }
+        boolean taken = exists.test(value);
+        (taken ? checks.taken() : checks.falsePositive()).increment();
+        return taken;
+    }
+
+    static String normalize(String value) {
+        String stripped = value.strip();
+        for (int i = 0; i < stripped.length(); i++) {
+            if (stripped.charAt(i) > 0x7f) {
+                String decomposed = Normalizer.normalize(stripped, Normalizer.Form.NFD);
+                return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+            }
+        }
+        return stripped.toLowerCase(Locale.ROOT);
+    }
+
+    private static Checks checks(MeterRegistry meterRegistry, String field) {
+        return new Checks(check(meterRegistry, field, "filtered"),
+                check(meterRegistry, field, "taken"),
+                check(meterRegistry, field, "false-positive"));
+    }
+
+    private static Counter check(MeterRegistry meterRegistry, String field, String result) {
+        return Counter.builder("user.availability.checks")
+                .tag("field", field)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private void gauges(MeterRegistry meterRegistry, String field, Function<Filters, BloomFilter> filter) {
+        Gauge.builder("user.availability.filter.bytes", this,
+                        index -> index.current == null ? 0 : filter.apply(index.current).sizeInBytes())
+                .tag("field", field)
+                .register(meterRegistry);
+        Gauge.builder("user.availability.filter.fpp", this,
+                        index -> index.current == null ? 0 : filter.apply(index.current).expectedFalsePositiveRate())
+                .tag("field", field)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,40 @@
+package com.todo.service.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers invalidations synchronously to subscribers in this JVM only. Enough for a single node;
+ * running several nodes needs a bus backed by a shared broker in its place.
+ */
+@Component
+@Slf4j
+public class LocalTodoCacheInvalidationBus implements TodoCacheInvalidationBus {
+
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String userId) {
+        for (Consumer<String> listener : listeners) {
+            try {
+                listener.accept(userId);
+            } catch (RuntimeException e) {
+                log.error("Todo cache invalidation failed for user: {}", userId, e);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    // There are no other nodes, so nothing is ever delivered to a remote listener
+    @Override
+    public void subscribeRemote(Consumer<String> listener) {
+    }
+}
@@ -0,0 +1,202 @@
+package com.todo.service.cache;
+
+import com.todo.service.entity.Todo;
+import com.todo.service.entity.TodoStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Each user's full todo list, newest first, together with the todo version it was read at. Entries
+ * go when a committed write to the user's todos is broadcast on the {@link TodoCacheInvalidationBus},
+ * after {@code ttl-ms}, or to stay under {@code max-users}. Users with more than
+ * {@code max-todos-per-user} todos are always read from the database, counted in {@code todo.cache.bypass};
+ * reads that need only part of their list run a narrower query through {@link #getIfCacheable}.
+ * <p>
+ * The cached lists are immutable and shared between requests; callers must not modify the todos in them.
+ */
+@Component
+public class TodoCache {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // Bumped by every invalidation; a load is only kept if its user's stripe did not move while it ran
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final TodoCacheInvalidationBus invalidationBus;
+    private final int maxUsers;
+    private final int maxTodosPerUser;
+    private final long ttlMillis;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bypasses;
+    private final Counter sizeEvictions;
+    private final Counter expirations;
+    private final Counter invalidations;
+
+    public TodoCache(@Value("${app.todo-cache.max-users:10000}") int maxUsers,
+                     @Value("${app.todo-cache.max-todos-per-user:1000}") int maxTodosPerUser,
+                     @Value("${app.todo-cache.ttl-ms:600000}") long ttlMillis,
+                     TodoCacheInvalidationBus invalidationBus,
+                     MeterRegistry meterRegistry) {
+        this.maxUsers = maxUsers;
+        this.maxTodosPerUser = maxTodosPerUser;
+        this.ttlMillis = ttlMillis;
+        this.invalidationBus = invalidationBus;
+        this.hits = Counter.builder("todo.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("todo.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.bypasses = Counter.builder("todo.cache.bypass").register(meterRegistry);
+        this.sizeEvictions = Counter.builder("todo.cache.evictions").tag("cause", "size").register(meterRegistry);
+        this.expirations = Counter.builder("todo.cache.evictions").tag("cause", "expired").register(meterRegistry);
+        this.invalidations = Counter.builder("todo.cache.invalidations").register(meterRegistry);
+        Gauge.builder("todo.cache.size", entries, ConcurrentHashMap::size).register(meterRegistry);
+        Gauge.builder("todo.cache.hit.ratio", this, TodoCache::hitRatio).register(meterRegistry);
+        invalidationBus.subscribe(this::invalidate);
+    }
+
+    /**
+     * Returns the user's todos, loading and caching them on a miss. A cached list read at a version below
+     * {@code minVersion} counts as a miss, so a caller that has already seen a newer version never gets
+     * an older list, even when this node has not heard of the write yet.
+     */
+    public List<Todo> get(String userId, long minVersion, Supplier<Snapshot> loader) {
+        List<Todo> cached = lookup(userId, minVersion);
+        if (cached != null) {
+            return cached;
+        }
+        int stripe = stripe(userId);
+        long generation = generations.get(stripe);
+        return store(userId, loader.get(), stripe, generation);
+    }
+
+    /**
+     * As {@link #get}, for callers with a narrower query to fall back on. On a miss the user's stats are read
+     * first, and a user with more than {@code max-todos-per-user} todos gets {@code null} instead of a load of
+     * the whole list, which would not be cached anyway. So does every user while the cache is disabled.
+     */
+    public List<Todo> getIfCacheable(String userId, long minVersion, Supplier<TodoStats> stats,
+                                     Function<TodoStats, List<Todo>> loader) {
+        if (maxUsers <= 0) {
+            return null;
+        }
+        List<Todo> cached = lookup(userId, minVersion);
+        if (cached != null) {
+            return cached;
+        }
+        int stripe = stripe(userId);
+        long generation = generations.get(stripe);
+        TodoStats current = stats.get();
+        if (current.getTotal() > maxTodosPerUser) {
+            bypasses.increment();
+            return null;
+        }
+        return store(userId, new Snapshot(current.getVersion(), loader.apply(current)), stripe, generation);
+    }
+
+    // Runs on every node, the publishing one included
+    public void invalidate(String userId) {
+        generations.incrementAndGet(stripe(userId));
+        entries.remove(userId);
+        invalidations.increment();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodosChanged(TodosChangedEvent event) {
+        invalidationBus.publish(event.userId());
+    }
+
+    @Scheduled(fixedDelayString = "${app.todo-cache.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> {
+            if (entry.expiresAtMillis() > now) {
+                return false;
+            }
+            expirations.increment();
+            return true;
+        });
+    }
+
+    private List<Todo> lookup(String userId, long minVersion) {
+        Entry entry = entries.get(userId);
+        if (entry != null) {
+            if (entry.expiresAtMillis() <= System.currentTimeMillis()) {
+                if (entries.remove(userId, entry)) {
+                    expirations.increment();
+                }
+            } else if (entry.snapshot().version() >= minVersion) {
+                hits.increment();
+                return entry.snapshot().todos();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    private List<Todo> store(String userId, Snapshot loaded, int stripe, long generation) {
+        Snapshot snapshot = new Snapshot(loaded.version(), List.copyOf(loaded.todos()));
+        if (maxUsers > 0) {
+            if (snapshot.todos().size() <= maxTodosPerUser) {
+                put(userId, snapshot, stripe, generation);
+            } else {
+                bypasses.increment();
+            }
+        }
+        return snapshot.todos();
+    }
+
+    private void put(String userId, Snapshot snapshot, int stripe, long generation) {
+        if (entries.size() >= maxUsers) {
+            makeRoom();
+        }
+        Entry fresh = new Entry(snapshot, System.currentTimeMillis() + ttlMillis);
+        // Two concurrent loads: keep whichever read the later version
+        entries.compute(userId, (key, current) ->
+                current != null && current.snapshot().version() > snapshot.version() ? current : fresh);
+        // An invalidation that ran while we were loading may have missed the entry we just added
+        if (generations.get(stripe) != generation) {
+            entries.remove(userId, fresh);
+        }
+    }
+
+    private void makeRoom() {
+        evictExpired();
+        // Still full: drop arbitrary entries, those users just pay one extra query on their next read
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() >= maxUsers && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+            sizeEvictions.increment();
+        }
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private static int stripe(String userId) {
+        return userId.hashCode() & (GENERATION_STRIPES - 1);
+    }
+
+    /**
+     * A user's todos as read from the database. The version must be read before the todos, so it is never
+     * newer than the list it labels.
+     */
+    public record Snapshot(long version, List<Todo> todos) {
+    }
+
+    private record Entry(Snapshot snapshot, long expiresAtMillis) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.todo.service.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries "this user's todos changed" to every node holding a {@link TodoCache}. Implementations
+ * deliver each message to all subscribers, including those on the publishing node.
+ */
+public interface TodoCacheInvalidationBus {
+
+    void publish(String userId);
+
+    void subscribe(Consumer<String> listener);
+
+    /**
+     * As {@link #subscribe}, but only for messages published by other nodes, for state that this node
+     * already keeps current from its own writes.
+     */
+    void subscribeRemote(Consumer<String> listener);
+}
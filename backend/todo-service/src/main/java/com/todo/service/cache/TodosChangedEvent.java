@@ -0,0 +1,8 @@
+package com.todo.service.cache;
+
+/**
+ * Published inside the transaction that changed any of the user's todos; cached copies are dropped
+ * once it commits.
+ */
+public record TodosChangedEvent(String userId) {
+}
@@ -0,0 +1,69 @@
+package com.todo.service.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Makes {@code @Timed} work on Spring beans (Spring Boot 3.1 only applies it to controllers). The endpoints
+ * are already timed as {@code http.server.requests} and the repository queries as
+ * {@code spring.data.repository.invocations}; {@code @Timed} covers the service layer in between.
+ * <p>
+ * Also publishes Hibernate's statistics as {@code hibernate.*} meters. The hibernate-micrometer module that
+ * Spring Boot would bind them from is not published for the Hibernate 6.2 release in use.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    // Only counts when hibernate.generate_statistics is on; the meters then read Hibernate's own counters
+    @Bean
+    public MeterBinder hibernateStatistics(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> {
+            counter(registry, "hibernate.sessions.open", statistics, Statistics::getSessionOpenCount);
+            counter(registry, "hibernate.sessions.closed", statistics, Statistics::getSessionCloseCount);
+            counter(registry, "hibernate.transactions", statistics, Statistics::getSuccessfulTransactionCount,
+                    "result", "success");
+            counter(registry, "hibernate.transactions", statistics,
+                    s -> s.getTransactionCount() - s.getSuccessfulTransactionCount(), "result", "failure");
+            counter(registry, "hibernate.statements", statistics, Statistics::getPrepareStatementCount,
+                    "status", "prepared");
+            counter(registry, "hibernate.flushes", statistics, Statistics::getFlushCount);
+            counter(registry, "hibernate.connections.obtained", statistics, Statistics::getConnectCount);
+            counter(registry, "hibernate.optimistic.failures", statistics, Statistics::getOptimisticFailureCount);
+            counter(registry, "hibernate.entities.loads", statistics, Statistics::getEntityLoadCount);
+            counter(registry, "hibernate.entities.fetches", statistics, Statistics::getEntityFetchCount);
+            counter(registry, "hibernate.entities.inserts", statistics, Statistics::getEntityInsertCount);
+            counter(registry, "hibernate.entities.updates", statistics, Statistics::getEntityUpdateCount);
+            counter(registry, "hibernate.entities.deletes", statistics, Statistics::getEntityDeleteCount);
+            counter(registry, "hibernate.collections.fetches", statistics, Statistics::getCollectionFetchCount);
+            counter(registry, "hibernate.query.executions", statistics, Statistics::getQueryExecutionCount);
+            TimeGauge.builder("hibernate.query.executions.max", statistics, TimeUnit.MILLISECONDS,
+                    Statistics::getQueryExecutionMaxTime).register(registry);
+            counter(registry, "hibernate.query.plan", statistics, Statistics::getQueryPlanCacheHitCount,
+                    "result", "hit");
+            counter(registry, "hibernate.query.plan", statistics, Statistics::getQueryPlanCacheMissCount,
+                    "result", "miss");
+        };
+    }
+
+    private static void counter(MeterRegistry registry, String name, Statistics statistics,
+                                ToDoubleFunction<Statistics> count, String... tags) {
+        FunctionCounter.builder(name, statistics, count).tags(tags).register(registry);
+    }
+}
@@ -0,0 +1,54 @@
+package com.todo.service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs Tomcat request handling, {@code @Async} methods and {@code @Scheduled} jobs on virtual threads
+ * when {@code app.threads.virtual.enabled} is set (Spring Boot 3.1 has no built-in switch for this).
+ * <p>
+ * Request concurrency is then no longer capped by Tomcat's worker pool, so the Hikari pool
+ * ({@code spring.datasource.hikari.maximum-pool-size}) is what limits concurrent database work;
+ * requests beyond it wait for a connection instead of for a thread.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.threads.virtual.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadsConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        log.info("Running request handling, @Async and @Scheduled work on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor("tomcat-handler-"));
+    }
+
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(virtualThreadExecutor("task-"));
+    }
+
+    // Boot's default scheduler has a single thread; virtual ones are cheap enough that a slow job need not hold back the rest
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(4);
+        scheduler.setThreadFactory(Thread.ofVirtual().name("scheduling-", 0).factory());
+        return scheduler;
+    }
+
+    private static ExecutorService virtualThreadExecutor(String namePrefix) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 0).factory());
+    }
+}
@@ -1,15 +1,19 @@
 package com.todo.service.controller;
 
 import com.todo.service.dto.AuthResponse;
+import com.todo.service.dto.AvailabilityResponse;
 import com.todo.service.dto.LoginRequest;
 import com.todo.service.dto.RegisterRequest;
 import com.todo.service.repository.UserRepository;
 import com.todo.service.repository.VerificationCodeRepository;
+import com.todo.service.security.PasswordHashingRejectedException;
 import com.todo.service.service.AuthService;
 import com.todo.service.service.VerificationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -84,12 +88,25 @@ public class AuthController {
             log.info("POST /api/auth/login - user: {}", request.getUsernameOrEmail());
             AuthResponse response = authService.login(request);
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingRejectedException e) {
+            return hashingBusy(e);
         } catch (RuntimeException e) {
             log.error("Login failed: {}", e.getMessage());
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
 
+    // For validating signup fields as they are typed; register still checks the database itself
+    @GetMapping("/availability")
+    public ResponseEntity<?> availability(@RequestParam(required = false) String username,
+                                          @RequestParam(required = false) String email) {
+        if ((username == null || username.isBlank()) && (email == null || email.isBlank())) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("username or email is required"));
+        }
+        AvailabilityResponse response = authService.checkAvailability(username, email);
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(response);
+    }
+
     @PostMapping("/verify-email")
     public ResponseEntity<?> verifyEmail(@RequestBody EmailVerificationRequest request) {
         try {
@@ -108,7 +125,9 @@ public class AuthController {
     @PostMapping("/complete-registration")
     public ResponseEntity<?> completeRegistration(@RequestBody CompleteRegistrationRequest request) {
         try {
-            // Verify the email code first
+            // Hash before the code is consumed, so a busy hashing pool leaves the code valid for the retry
+            String passwordHash = authService.hashPassword(request.getRegisterData().getPassword());
+
             boolean verified = verificationService.verifyCode(request.getEmail(), request.getCode(), 
                 com.todo.service.entity.VerificationCode.CodeType.EMAIL_VERIFICATION);
             
@@ -117,13 +136,15 @@ public class AuthController {
             }
             
             // Create the user
-            AuthResponse response = authService.register(request.getRegisterData());
+            AuthResponse response = authService.register(request.getRegisterData(), passwordHash);
             
             // Mark verification code as used
             verificationService.markAllCodesAsUsed(request.getEmail(), 
                 com.todo.service.entity.VerificationCode.CodeType.EMAIL_VERIFICATION);
             
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (PasswordHashingRejectedException e) {
+            return hashingBusy(e);
         } catch (Exception e) {
             log.error("Complete registration failed: {}", e.getMessage());
             return ResponseEntity.badRequest().body(new ErrorResponse("Registration completion failed"));
@@ -155,17 +176,22 @@ public class AuthController {
     @PostMapping("/reset-password")
     public ResponseEntity<?> resetPassword(@RequestBody ResetPasswordRequest request) {
         try {
+            // Hash before the code is consumed, so a busy hashing pool leaves the code valid for the retry
+            String passwordHash = authService.hashPassword(request.getNewPassword());
+
             boolean verified = verificationService.verifyCode(request.getEmail(), request.getCode(), 
                 com.todo.service.entity.VerificationCode.CodeType.PASSWORD_RESET);
             
             if (verified) {
-                authService.resetPassword(request.getEmail(), request.getNewPassword());
+                authService.resetPasswordHash(request.getEmail(), passwordHash);
                 verificationService.markAllCodesAsUsed(request.getEmail(), 
                     com.todo.service.entity.VerificationCode.CodeType.PASSWORD_RESET);
                 return ResponseEntity.ok(new MessageResponse("Password reset successfully"));
             } else {
                 return ResponseEntity.badRequest().body(new ErrorResponse("Invalid or expired reset code"));
             }
+        } catch (PasswordHashingRejectedException e) {
+            return hashingBusy(e);
         } catch (Exception e) {
             log.error("Password reset failed: {}", e.getMessage());
             return ResponseEntity.badRequest().body(new ErrorResponse("Password reset failed"));
@@ -185,6 +211,15 @@ public class AuthController {
         }
     }
 
+    // The hashing pool is saturated. Every caller hashes before writing anything or consuming a code,
+    // so the same request can simply be sent again
+    private ResponseEntity<?> hashingBusy(PasswordHashingRejectedException e) {
+        log.warn("Password hashing rejected: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(new ErrorResponse(e.getMessage()));
+    }
+
     // Request/Response classes
     public static class EmailVerificationRequest {
         private String email;
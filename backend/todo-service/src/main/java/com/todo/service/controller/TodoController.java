@@ -1,16 +1,46 @@
 package com.todo.service.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.todo.service.dto.TodoBatchRequest;
+import com.todo.service.dto.TodoBatchResponse;
+import com.todo.service.dto.TodoChanges;
+import com.todo.service.dto.TodoDeleteResponse;
+import com.todo.service.dto.TodoFilter;
+import com.todo.service.dto.TodoImportResponse;
+import com.todo.service.dto.TodoPatch;
+import com.todo.service.dto.TodoSummary;
 import com.todo.service.entity.Todo;
+import com.todo.service.service.SyncTokenExpiredException;
+import com.todo.service.service.TodoExportService;
+import com.todo.service.service.TodoImportService;
 import com.todo.service.service.TodoService;
+import com.todo.service.service.TodoSyncService;
+import com.todo.service.service.TodoVersionMismatchException;
+import com.todo.service.stream.TodoEventStream;
+import com.todo.service.transfer.TodoFormat;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.LongFunction;
 
 @RestController
 @RequestMapping("/api/todos")
@@ -19,52 +49,144 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class TodoController {
 
+    // Browsers keep the response but revalidate it with If-None-Match on every use
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final TodoService todoService;
+    private final TodoExportService todoExportService;
+    private final TodoImportService todoImportService;
+    private final TodoSyncService todoSyncService;
+    private final TodoEventStream todoEventStream;
 
     @GetMapping
-    public ResponseEntity<List<Todo>> getAllTodos(@RequestParam("userId") String userId) {
+    public ResponseEntity<?> getAllTodos(@RequestParam("userId") String userId,
+                                         @RequestParam(value = "limit", required = false) Integer limit,
+                                         @RequestParam(value = "after", required = false) String after,
+                                         WebRequest request) {
         log.info("GET /api/todos - userId: {}", userId);
-        List<Todo> todos = todoService.getAllTodosByUserId(userId);
-        return ResponseEntity.ok(todos);
+        return conditional(userId, request, version -> {
+            if (isCursorRequest(limit, after)) {
+                return ResponseEntity.ok(todoService.getTodosPage(userId, limit, after));
+            }
+            List<Todo> todos = todoService.getAllTodosByUserId(userId, version);
+            return ResponseEntity.ok(todos);
+        });
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<Todo>> searchTodos(@RequestParam("userId") String userId,
+                                                  @RequestParam("q") String query,
+                                                  @RequestParam(value = "limit", required = false) Integer limit,
+                                                  WebRequest request) {
+        log.info("GET /api/todos/search - userId: {}", userId);
+        return conditional(userId, request, version ->
+                ResponseEntity.ok(todoService.searchTodos(userId, query, limit)));
     }
 
+    @GetMapping("/changes")
+    public ResponseEntity<TodoChanges> getChanges(@RequestParam("userId") String userId,
+                                                  @RequestParam(value = "since", required = false) String since,
+                                                  @RequestParam(value = "limit", required = false) Integer limit) {
+        log.info("GET /api/todos/changes - userId: {}", userId);
+        return ResponseEntity.ok(todoSyncService.getChanges(userId, since, limit));
+    }
+
+    // Async: the request thread returns at once and the open stream holds no thread while idle
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTodos(@RequestParam("userId") String userId) {
+        log.info("GET /api/todos/stream - userId: {}", userId);
+        return todoEventStream.open(userId, todoService.getTodosVersion(userId));
+    }
+
+    // Written synchronously to the response, so a large export is not cut off by the async request timeout
+    @GetMapping("/export")
+    public void exportTodos(@RequestParam("userId") String userId,
+                            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+                            HttpServletResponse response) throws IOException {
+        log.info("GET /api/todos/export - userId: {}, format: {}", userId, format);
+        TodoFormat todoFormat = TodoFormat.fromParam(format);
+        response.setContentType(todoFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("todos." + todoFormat.getExtension())
+                .build()
+                .toString());
+        todoExportService.export(userId, todoFormat, response.getOutputStream());
+    }
+
+    // The ETag is the todo's own version, so it can be sent back in If-Match on the writes below
     @GetMapping("/{id}")
-    public ResponseEntity<Todo> getTodoById(@PathVariable("id") Long id, @RequestParam("userId") String userId) {
+    public ResponseEntity<Todo> getTodoById(@PathVariable("id") Long id, @RequestParam("userId") String userId,
+                                            WebRequest request) {
         log.info("GET /api/todos/{} - userId: {}", id, userId);
-        return todoService.getTodoById(id, userId)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        Optional<Todo> todo = todoService.getTodoById(id, userId);
+        if (todo.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(etag(todo.get()))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(todo.get());
     }
 
     @GetMapping("/status/{completed}")
-    public ResponseEntity<List<Todo>> getTodosByStatus(@PathVariable("completed") boolean completed, @RequestParam("userId") String userId) {
+    public ResponseEntity<?> getTodosByStatus(@PathVariable("completed") boolean completed, @RequestParam("userId") String userId,
+                                              @RequestParam(value = "limit", required = false) Integer limit,
+                                              @RequestParam(value = "after", required = false) String after,
+                                              WebRequest request) {
         log.info("GET /api/todos/status/{} - userId: {}", completed, userId);
-        List<Todo> todos = todoService.getTodosByStatus(userId, completed);
-        return ResponseEntity.ok(todos);
+        return conditional(userId, request, version -> {
+            if (isCursorRequest(limit, after)) {
+                return ResponseEntity.ok(todoService.getTodosByStatusPage(userId, completed, limit, after));
+            }
+            List<Todo> todos = todoService.getTodosByStatus(userId, completed, version);
+            return ResponseEntity.ok(todos);
+        });
     }
 
     @GetMapping("/priority/{priority}")
-    public ResponseEntity<List<Todo>> getTodosByPriority(@PathVariable("priority") Todo.Priority priority, @RequestParam("userId") String userId) {
+    public ResponseEntity<?> getTodosByPriority(@PathVariable("priority") Todo.Priority priority, @RequestParam("userId") String userId,
+                                                @RequestParam(value = "limit", required = false) Integer limit,
+                                                @RequestParam(value = "after", required = false) String after,
+                                                WebRequest request) {
         log.info("GET /api/todos/priority/{} - userId: {}", priority, userId);
-        List<Todo> todos = todoService.getTodosByPriority(userId, priority);
-        return ResponseEntity.ok(todos);
+        return conditional(userId, request, version -> {
+            if (isCursorRequest(limit, after)) {
+                return ResponseEntity.ok(todoService.getTodosByPriorityPage(userId, priority, limit, after));
+            }
+            List<Todo> todos = todoService.getTodosByPriority(userId, priority, version);
+            return ResponseEntity.ok(todos);
+        });
     }
 
     @GetMapping("/overdue")
-    public ResponseEntity<List<Todo>> getOverdueTodos(@RequestParam("userId") String userId) {
+    public ResponseEntity<?> getOverdueTodos(@RequestParam("userId") String userId,
+                                             @RequestParam(value = "limit", required = false) Integer limit,
+                                             @RequestParam(value = "after", required = false) String after) {
         log.info("GET /api/todos/overdue - userId: {}", userId);
+        if (isCursorRequest(limit, after)) {
+            return ResponseEntity.ok(todoService.getOverdueTodosPage(userId, limit, after));
+        }
         List<Todo> todos = todoService.getOverdueTodos(userId);
         return ResponseEntity.ok(todos);
     }
 
     @GetMapping("/date-range")
-    public ResponseEntity<List<Todo>> getTodosByDateRange(
+    public ResponseEntity<?> getTodosByDateRange(
             @RequestParam("userId") String userId,
             @RequestParam("startDate") LocalDateTime startDate,
-            @RequestParam("endDate") LocalDateTime endDate) {
+            @RequestParam("endDate") LocalDateTime endDate,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "after", required = false) String after,
+            WebRequest request) {
         log.info("GET /api/todos/date-range - userId: {}, startDate: {}, endDate: {}", userId, startDate, endDate);
-        List<Todo> todos = todoService.getTodosByDateRange(userId, startDate, endDate);
-        return ResponseEntity.ok(todos);
+        return conditional(userId, request, version -> {
+            if (isCursorRequest(limit, after)) {
+                return ResponseEntity.ok(todoService.getTodosByDateRangePage(userId, startDate, endDate, limit, after));
+            }
+            List<Todo> todos = todoService.getTodosByDateRange(userId, startDate, endDate);
+            return ResponseEntity.ok(todos);
+        });
     }
 
     @PostMapping
@@ -74,18 +196,47 @@ public class TodoController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdTodo);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<TodoBatchResponse> applyBatch(@Valid @RequestBody TodoBatchRequest request,
+                                                        @RequestParam("userId") String userId) {
+        log.info("POST /api/todos/batch - userId: {}, items: {}", userId, request.size());
+        return ResponseEntity.ok(todoService.applyBatch(userId, request));
+    }
+
+    // The body is read as a stream, row by row, rather than bound to a request object
+    @PostMapping("/import")
+    public ResponseEntity<TodoImportResponse> importTodos(@RequestParam("userId") String userId,
+                                                          @RequestParam(value = "format", defaultValue = "ndjson") String format,
+                                                          HttpServletRequest request) throws IOException {
+        log.info("POST /api/todos/import - userId: {}, format: {}", userId, format);
+        TodoFormat todoFormat = TodoFormat.fromParam(format);
+        return ResponseEntity.ok(todoImportService.importTodos(userId, todoFormat, request.getInputStream()));
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<Todo> updateTodo(@PathVariable("id") Long id, @Valid @RequestBody Todo todoDetails, @RequestParam("userId") String userId) {
+    public ResponseEntity<Todo> updateTodo(@PathVariable("id") Long id, @Valid @RequestBody Todo todoDetails, @RequestParam("userId") String userId,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("PUT /api/todos/{} - userId: {}", id, userId);
-        return todoService.updateTodo(id, todoDetails, userId)
-                .map(ResponseEntity::ok)
+        return todoService.updateTodo(id, todoDetails, userId, expectedVersion(ifMatch))
+                .map(todo -> ResponseEntity.ok().eTag(etag(todo)).body(todo))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // JSON merge patch: only the fields in the body change, written by one UPDATE of those columns
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Todo> patchTodo(@PathVariable("id") Long id, @RequestBody JsonNode patch, @RequestParam("userId") String userId,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.info("PATCH /api/todos/{} - userId: {}", id, userId);
+        return todoService.patchTodo(id, userId, TodoPatch.from(patch), expectedVersion(ifMatch))
+                .map(todo -> ResponseEntity.ok().eTag(etag(todo)).body(todo))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteTodo(@PathVariable("id") Long id, @RequestParam("userId") String userId) {
+    public ResponseEntity<Void> deleteTodo(@PathVariable("id") Long id, @RequestParam("userId") String userId,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("DELETE /api/todos/{} - userId: {}", id, userId);
-        boolean deleted = todoService.deleteTodo(id, userId);
+        boolean deleted = todoService.deleteTodo(id, userId, expectedVersion(ifMatch));
         if (deleted) {
             return ResponseEntity.noContent().build();
         } else {
@@ -93,10 +244,24 @@ public class TodoController {
         }
     }
 
+    // Bulk delete by filter, e.g. ?completed=true to clear completed todos; at least one filter is required
+    @DeleteMapping
+    public ResponseEntity<TodoDeleteResponse> deleteTodos(@RequestParam("userId") String userId,
+                                                          @RequestParam(value = "completed", required = false) Boolean completed,
+                                                          @RequestParam(value = "priority", required = false) Todo.Priority priority,
+                                                          @RequestParam(value = "dueBefore", required = false)
+                                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueBefore) {
+        log.info("DELETE /api/todos - userId: {}, completed: {}, priority: {}, dueBefore: {}",
+                userId, completed, priority, dueBefore);
+        long deleted = todoService.deleteTodos(userId, new TodoFilter(completed, priority, dueBefore));
+        return ResponseEntity.ok(new TodoDeleteResponse(deleted));
+    }
+
     @PatchMapping("/{id}/toggle")
-    public ResponseEntity<Void> toggleTodoStatus(@PathVariable("id") Long id, @RequestParam("userId") String userId) {
+    public ResponseEntity<Void> toggleTodoStatus(@PathVariable("id") Long id, @RequestParam("userId") String userId,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("PATCH /api/todos/{}/toggle - userId: {}", id, userId);
-        boolean toggled = todoService.toggleTodoStatus(id, userId);
+        boolean toggled = todoService.toggleTodoStatus(id, userId, expectedVersion(ifMatch));
         if (toggled) {
             return ResponseEntity.ok().build();
         } else {
@@ -105,16 +270,92 @@ public class TodoController {
     }
 
     @GetMapping("/stats/completed")
-    public ResponseEntity<Long> getCompletedTodoCount(@RequestParam("userId") String userId) {
+    public ResponseEntity<Long> getCompletedTodoCount(@RequestParam("userId") String userId, WebRequest request) {
         log.info("GET /api/todos/stats/completed - userId: {}", userId);
-        long count = todoService.getCompletedTodoCount(userId);
-        return ResponseEntity.ok(count);
+        return conditional(userId, request, version -> ResponseEntity.ok(todoService.getCompletedTodoCount(userId)));
     }
 
     @GetMapping("/stats/pending")
-    public ResponseEntity<Long> getPendingTodoCount(@RequestParam("userId") String userId) {
+    public ResponseEntity<Long> getPendingTodoCount(@RequestParam("userId") String userId, WebRequest request) {
         log.info("GET /api/todos/stats/pending - userId: {}", userId);
-        long count = todoService.getPendingTodoCount(userId);
-        return ResponseEntity.ok(count);
+        return conditional(userId, request, version -> ResponseEntity.ok(todoService.getPendingTodoCount(userId)));
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<TodoSummary> getSummary(@RequestParam("userId") String userId) {
+        log.info("GET /api/todos/summary - userId: {}", userId);
+        return ResponseEntity.ok(todoService.getSummary(userId));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        log.warn("Bad request: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler(SyncTokenExpiredException.class)
+    public ResponseEntity<String> handleExpiredSyncToken(SyncTokenExpiredException e) {
+        log.info("Expired sync token: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.GONE).body(e.getMessage());
+    }
+
+    @ExceptionHandler(TodoVersionMismatchException.class)
+    public ResponseEntity<String> handleVersionMismatch(TodoVersionMismatchException e) {
+        log.info("If-Match failed: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(e.getMessage());
+    }
+
+    // A write without If-Match that raced another write to the same todo
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleConcurrentUpdate(OptimisticLockingFailureException e) {
+        log.info("Concurrent todo update: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("The todo was changed concurrently; read it again");
+    }
+
+    /**
+     * Answers from the user's todo version alone when the client's copy is current: a 304 then costs one
+     * primary-key lookup on {@code todo_stats}, with no query on {@code todos} and no JSON. The version is
+     * read before the data, so a write racing the read can only make the ETag older, never newer. The loader
+     * gets the version so cached lists older than it are not served.
+     * Overdue lists and the summary depend on the clock as well and are not covered; a single todo is
+     * tagged with its own version instead.
+     */
+    private <T> ResponseEntity<T> conditional(String userId, WebRequest request, LongFunction<ResponseEntity<T>> loader) {
+        long version = todoService.getTodosVersion(userId);
+        String etag = "\"" + version + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseEntity<T> response = loader.apply(version);
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        return ResponseEntity.status(response.getStatusCode()).cacheControl(REVALIDATE).body(response.getBody());
+    }
+
+    private static String etag(Todo todo) {
+        return "\"" + todo.getVersion() + "\"";
+    }
+
+    // If-Match takes the ETag of the single-todo endpoints. Absent or "*" means unconditional; a weak,
+    // listed or foreign tag cannot match any version, so it fails the write with 412
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    // Cursor mode is opt-in: plain requests keep returning the full list
+    private boolean isCursorRequest(Integer limit, String after) {
+        return limit != null || after != null;
     }
 }
@@ -0,0 +1,27 @@
+package com.todo.service.dto;
+
+import com.todo.service.entity.Todo;
+import jakarta.validation.Valid;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class TodoBatchRequest {
+
+    @Valid
+    private List<Todo> create = new ArrayList<>();
+
+    // Each todo must carry the id of the todo it replaces
+    @Valid
+    private List<Todo> update = new ArrayList<>();
+
+    private List<Long> toggle = new ArrayList<>();
+
+    private List<Long> delete = new ArrayList<>();
+
+    public int size() {
+        return create.size() + update.size() + toggle.size() + delete.size();
+    }
+}
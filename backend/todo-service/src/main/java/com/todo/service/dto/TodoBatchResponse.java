@@ -0,0 +1,25 @@
+package com.todo.service.dto;
+
+import com.todo.service.entity.Todo;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoBatchResponse {
+
+    private List<Todo> created;
+
+    private int updated;
+
+    private int toggled;
+
+    private int deleted;
+
+    // Ids from update/toggle/delete that do not exist or belong to another user; they are skipped
+    private List<Long> notFound;
+}
@@ -0,0 +1,25 @@
+package com.todo.service.dto;
+
+import com.todo.service.entity.Todo;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoChanges {
+
+    // Todos created or updated since the token, oldest change first
+    private List<Todo> changed;
+
+    // Ids of todos deleted since the token
+    private List<Long> deleted;
+
+    // Pass back as since: for the next page while hasMore, otherwise on the next sync
+    private String nextToken;
+
+    private boolean hasMore;
+}
@@ -0,0 +1,13 @@
+package com.todo.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoDeleteResponse {
+
+    private long deleted;
+}
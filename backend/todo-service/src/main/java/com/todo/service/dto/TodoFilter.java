@@ -0,0 +1,22 @@
+package com.todo.service.dto;
+
+import com.todo.service.entity.Todo;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Conditions for a bulk delete, combined with AND. A null field does not filter.
+ */
+@Value
+public class TodoFilter {
+
+    Boolean completed;
+    Todo.Priority priority;
+    // Todos due strictly before this; todos without a due date never match
+    LocalDateTime dueBefore;
+
+    public boolean isEmpty() {
+        return completed == null && priority == null && dueBefore == null;
+    }
+}
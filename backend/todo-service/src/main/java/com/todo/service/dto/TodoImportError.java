@@ -0,0 +1,16 @@
+package com.todo.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoImportError {
+
+    // 1-based position among the data rows; blank lines and the CSV header are not counted
+    private long row;
+
+    private String message;
+}
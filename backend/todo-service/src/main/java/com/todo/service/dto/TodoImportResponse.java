@@ -0,0 +1,20 @@
+package com.todo.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoImportResponse {
+
+    private long imported;
+
+    private long failed;
+
+    // One entry per failed row, up to the configured limit; failed always holds the full count
+    private List<TodoImportError> errors;
+}
@@ -0,0 +1,120 @@
+package com.todo.service.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.todo.service.entity.Todo;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A JSON merge patch (RFC 7396) for one todo. Only the fields present in the body change; an explicit
+ * null clears the description or the due date. The other fields cannot be null, and fields a client
+ * cannot write are rejected rather than ignored.
+ */
+@Getter
+public class TodoPatch {
+
+    private static final List<String> FIELDS = List.of("title", "description", "completed", "priority", "dueDate");
+
+    private boolean titleSet;
+    private String title;
+    private boolean descriptionSet;
+    private String description;
+    private boolean completedSet;
+    private boolean completed;
+    private boolean prioritySet;
+    private Todo.Priority priority;
+    private boolean dueDateSet;
+    private LocalDateTime dueDate;
+
+    public static TodoPatch from(JsonNode body) {
+        if (body == null || !body.isObject()) {
+            throw new IllegalArgumentException("A todo patch must be a JSON object");
+        }
+        TodoPatch patch = new TodoPatch();
+        Iterator<Map.Entry<String, JsonNode>> fields = body.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode value = field.getValue();
+            switch (field.getKey()) {
+                case "title" -> {
+                    String title = text(field.getKey(), value, false);
+                    if (title.isBlank()) {
+                        throw new IllegalArgumentException("Title is required");
+                    }
+                    if (title.length() > 255) {
+                        throw new IllegalArgumentException("Title must be between 1 and 255 characters");
+                    }
+                    patch.titleSet = true;
+                    patch.title = title;
+                }
+                case "description" -> {
+                    String description = text(field.getKey(), value, true);
+                    if (description != null && description.length() > 1000) {
+                        throw new IllegalArgumentException("Description cannot exceed 1000 characters");
+                    }
+                    patch.descriptionSet = true;
+                    patch.description = description;
+                }
+                case "completed" -> {
+                    if (!value.isBoolean()) {
+                        throw new IllegalArgumentException("completed must be true or false");
+                    }
+                    patch.completedSet = true;
+                    patch.completed = value.booleanValue();
+                }
+                case "priority" -> {
+                    String priority = text(field.getKey(), value, false);
+                    try {
+                        patch.priority = Todo.Priority.valueOf(priority);
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Unknown priority: " + priority);
+                    }
+                    patch.prioritySet = true;
+                }
+                case "dueDate" -> {
+                    String dueDate = text(field.getKey(), value, true);
+                    try {
+                        patch.dueDate = dueDate == null ? null : LocalDateTime.parse(dueDate);
+                    } catch (DateTimeParseException e) {
+                        throw new IllegalArgumentException("Invalid dueDate: " + dueDate);
+                    }
+                    patch.dueDateSet = true;
+                }
+                default -> throw new IllegalArgumentException("Cannot patch field: " + field.getKey()
+                        + " (patchable: " + String.join(", ", FIELDS) + ")");
+            }
+        }
+        return patch;
+    }
+
+    public boolean isEmpty() {
+        return !titleSet && !descriptionSet && !completedSet && !prioritySet && !dueDateSet;
+    }
+
+    // Status and priority feed the summary counters, so the old values are needed to patch them
+    public boolean changesCounters() {
+        return completedSet || prioritySet;
+    }
+
+    public boolean changesText() {
+        return titleSet || descriptionSet;
+    }
+
+    private static String text(String field, JsonNode value, boolean nullable) {
+        if (value.isNull()) {
+            if (nullable) {
+                return null;
+            }
+            throw new IllegalArgumentException(field + " cannot be null");
+        }
+        if (!value.isTextual()) {
+            throw new IllegalArgumentException(field + " must be a string");
+        }
+        return value.textValue();
+    }
+}
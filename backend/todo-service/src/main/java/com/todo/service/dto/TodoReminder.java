@@ -0,0 +1,24 @@
+package com.todo.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoReminder {
+
+    private Long todoId;
+
+    private String title;
+
+    private LocalDateTime dueDate;
+
+    // Null when the owning user no longer exists
+    private String username;
+
+    private String email;
+}
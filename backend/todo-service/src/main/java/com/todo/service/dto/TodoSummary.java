@@ -0,0 +1,28 @@
+package com.todo.service.dto;
+
+import com.todo.service.entity.Todo;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoSummary {
+
+    private long total;
+
+    private long completed;
+
+    private long pending;
+
+    // Pending todos whose due date has passed
+    private long overdue;
+
+    // Pending todos due later today
+    private long dueToday;
+
+    private Map<Todo.Priority, Long> byPriority;
+}
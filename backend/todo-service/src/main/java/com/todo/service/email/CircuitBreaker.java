@@ -0,0 +1,66 @@
+package com.todo.service.email;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold} retryable failures in a row
+ * the circuit opens for {@code openMillis}; after that a single trial call is let through and its
+ * outcome either closes the circuit or opens it again.
+ */
+class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    // How often callers waiting on a half-open trial check back
+    private static final long TRIAL_POLL_MILLIS = 50;
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    // 0 when the caller may send now, otherwise how long to wait before asking again
+    synchronized long permitDelayMillis() {
+        if (state == State.OPEN) {
+            long remaining = openedAt + openMillis - System.currentTimeMillis();
+            if (remaining > 0) {
+                return remaining;
+            }
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return TRIAL_POLL_MILLIS;
+            }
+            trialInFlight = true;
+        }
+        return 0;
+    }
+
+    synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            consecutiveFailures = 0;
+            trialInFlight = false;
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+}
@@ -0,0 +1,23 @@
+package com.todo.service.email;
+
+import lombok.Getter;
+
+/**
+ * A failed send. Retryable failures (timeouts, 429, 5xx) are retried with backoff and count
+ * towards the circuit breaker; anything else fails the batch straight away.
+ */
+@Getter
+public class EmailDeliveryException extends RuntimeException {
+
+    private final boolean retryable;
+
+    public EmailDeliveryException(String message, boolean retryable) {
+        super(message);
+        this.retryable = retryable;
+    }
+
+    public EmailDeliveryException(String message, boolean retryable, Throwable cause) {
+        super(message, cause);
+        this.retryable = retryable;
+    }
+}
@@ -0,0 +1,243 @@
+package com.todo.service.email;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded, batching queue in front of an {@link EmailTransport}.
+ * <p>
+ * {@link #submit} never blocks: it either enqueues the message or fails fast when the queue is full.
+ * A few worker threads drain the queue into batches of up to {@link EmailTransport#maxBatchSize()},
+ * retry retryable failures with exponential backoff and jitter, and stop calling the provider while
+ * the circuit breaker is open. Messages keep queueing meanwhile, so a long outage ends in rejected
+ * submits rather than unbounded memory.
+ * <p>
+ * Each batch gets an idempotency key that its retries reuse, so a call the provider accepted but whose
+ * answer was lost is not delivered twice. A batch the provider rejects outright is sent again one message
+ * at a time, so only the offending messages fail.
+ */
+@Component
+@Slf4j
+public class EmailDispatcher {
+
+    private record Envelope(EmailMessage message, CompletableFuture<Void> result) {
+    }
+
+    private final EmailTransport transport;
+    private final BlockingQueue<Envelope> queue;
+    private final CircuitBreaker circuitBreaker;
+    private final int workerCount;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long shutdownTimeoutMillis;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+    private final Counter retries;
+    private final Timer batchSuccess;
+    private final Timer batchFailure;
+
+    public EmailDispatcher(EmailTransport transport,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.email.dispatch.queue-capacity:10000}") int queueCapacity,
+                           @Value("${app.email.dispatch.workers:4}") int workerCount,
+                           @Value("${app.email.dispatch.max-attempts:5}") int maxAttempts,
+                           @Value("${app.email.dispatch.initial-backoff-ms:500}") long initialBackoffMillis,
+                           @Value("${app.email.dispatch.max-backoff-ms:30000}") long maxBackoffMillis,
+                           @Value("${app.email.dispatch.circuit-failure-threshold:5}") int circuitFailureThreshold,
+                           @Value("${app.email.dispatch.circuit-open-ms:30000}") long circuitOpenMillis,
+                           @Value("${app.email.dispatch.shutdown-timeout-ms:10000}") long shutdownTimeoutMillis) {
+        this.transport = transport;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.circuitBreaker = new CircuitBreaker(circuitFailureThreshold, circuitOpenMillis);
+        this.workerCount = workerCount;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+
+        this.meterRegistry = meterRegistry;
+        this.rejected = Counter.builder("email.dispatch.rejected").register(meterRegistry);
+        this.retries = Counter.builder("email.dispatch.retries").register(meterRegistry);
+        this.batchSuccess = Timer.builder("email.dispatch.batch").tag("outcome", "success").register(meterRegistry);
+        this.batchFailure = Timer.builder("email.dispatch.batch").tag("outcome", "failure").register(meterRegistry);
+        Gauge.builder("email.dispatch.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("email.dispatch.queue.remaining", queue, BlockingQueue::remainingCapacity).register(meterRegistry);
+        Gauge.builder("email.dispatch.circuit.open", circuitBreaker,
+                breaker -> breaker.state() == CircuitBreaker.State.CLOSED ? 0 : 1).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::drain, "email-dispatch-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * Queues a message for delivery. The returned future completes once the provider accepted it and
+     * fails once it was rejected for good; it is already failed when the queue is full.
+     */
+    public CompletableFuture<Void> submit(EmailMessage message) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        if (!running || !queue.offer(new Envelope(message, result))) {
+            rejected.increment();
+            count("rejected", message);
+            result.completeExceptionally(new RejectedExecutionException(
+                    running ? "Email queue is full" : "Email dispatcher is shut down"));
+        }
+        return result;
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        long deadline = System.currentTimeMillis() + shutdownTimeoutMillis;
+        for (Thread worker : workers) {
+            worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+        }
+        workers.forEach(Thread::interrupt);
+
+        List<Envelope> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        if (!abandoned.isEmpty()) {
+            log.warn("Email dispatcher stopped with {} unsent message(s)", abandoned.size());
+            fail(abandoned, new RejectedExecutionException("Email dispatcher is shut down"));
+        }
+    }
+
+    // Workers keep draining after shutdown() until the queue is empty or they are interrupted
+    private void drain() {
+        int batchSize = transport.maxBatchSize();
+        while (running || !queue.isEmpty()) {
+            try {
+                Envelope first = queue.poll(250, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<Envelope> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                try {
+                    deliver(batch, UUID.randomUUID().toString());
+                } catch (InterruptedException e) {
+                    fail(batch, new RejectedExecutionException("Email dispatcher is shut down"));
+                    throw e;
+                } catch (RuntimeException e) {
+                    // No caller may be left waiting; completing an already completed future is a no-op
+                    batch.forEach(envelope -> envelope.result().completeExceptionally(e));
+                    throw e;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error in email dispatch worker", e);
+            }
+        }
+    }
+
+    private void deliver(List<Envelope> batch, String idempotencyKey) throws InterruptedException {
+        List<EmailMessage> messages = batch.stream().map(Envelope::message).toList();
+        for (int attempt = 1; ; attempt++) {
+            long wait;
+            while ((wait = circuitBreaker.permitDelayMillis()) > 0) {
+                Thread.sleep(wait);
+            }
+
+            long start = System.nanoTime();
+            try {
+                transport.send(messages, idempotencyKey);
+            } catch (EmailDeliveryException e) {
+                batchFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (!e.isRetryable()) {
+                    // The provider answered, so it is up; the batch itself is bad
+                    circuitBreaker.recordSuccess();
+                    if (batch.size() > 1) {
+                        log.warn("Email batch of {} rejected by provider, sending one by one: {}",
+                                batch.size(), e.getMessage());
+                        for (int i = 0; i < batch.size(); i++) {
+                            deliver(List.of(batch.get(i)), idempotencyKey + "-" + i);
+                        }
+                        return;
+                    }
+                    log.error("Email to {} rejected by provider: {}", batch.get(0).message().getTo(), e.getMessage());
+                    fail(batch, e);
+                    return;
+                }
+                circuitBreaker.recordFailure();
+                if (attempt >= maxAttempts) {
+                    log.error("Giving up on email batch of {} after {} attempts: {}", batch.size(), attempt, e.getMessage());
+                    fail(batch, e);
+                    return;
+                }
+                retries.increment();
+                long backoff = backoffMillis(attempt);
+                log.warn("Email batch of {} failed (attempt {}), retrying in {} ms: {}",
+                        batch.size(), attempt, backoff, e.getMessage());
+                Thread.sleep(backoff);
+                continue;
+            } catch (RuntimeException e) {
+                // A bug rather than an outage; still ends a half-open trial so the other workers are not left waiting
+                circuitBreaker.recordFailure();
+                fail(batch, e);
+                batchFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                log.error("Email batch of {} failed unexpectedly", batch.size(), e);
+                return;
+            }
+            circuitBreaker.recordSuccess();
+            batchSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            for (Envelope envelope : batch) {
+                envelope.result().complete(null);
+                count("sent", envelope.message());
+            }
+            return;
+        }
+    }
+
+    // Exponential and capped, with the upper half randomized so retrying workers spread out
+    private long backoffMillis(int attempt) {
+        long window = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        return window / 2 + ThreadLocalRandom.current().nextLong(window / 2 + 1);
+    }
+
+    private void fail(List<Envelope> batch, Throwable cause) {
+        for (Envelope envelope : batch) {
+            envelope.result().completeExceptionally(cause);
+            count("failed", envelope.message());
+        }
+    }
+
+    private void count(String outcome, EmailMessage message) {
+        meterRegistry.counter("email.dispatch.messages", "outcome", outcome, "category", message.getCategory())
+                .increment();
+    }
+}
@@ -0,0 +1,16 @@
+package com.todo.service.email;
+
+import lombok.Value;
+
+/**
+ * One outgoing plain-text email. {@code category} only tags metrics and logs
+ * (e.g. "verification", "password-reset", "reminder").
+ */
+@Value
+public class EmailMessage {
+    String from;
+    String to;
+    String subject;
+    String text;
+    String category;
+}
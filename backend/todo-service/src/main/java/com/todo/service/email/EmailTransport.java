@@ -0,0 +1,20 @@
+package com.todo.service.email;
+
+import java.util.List;
+
+/**
+ * Hands a batch of messages to an email provider in as few calls as it allows. A batch either
+ * succeeds or fails as a whole.
+ */
+public interface EmailTransport {
+
+    /**
+     * Every retry of the same batch carries the same {@code idempotencyKey}, so a provider that already
+     * accepted the call, e.g. before its answer timed out, does not send the messages again.
+     *
+     * @throws EmailDeliveryException when the provider did not accept the batch
+     */
+    void send(List<EmailMessage> messages, String idempotencyKey);
+
+    int maxBatchSize();
+}
@@ -0,0 +1,102 @@
+package com.todo.service.email;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Sends through the Resend REST API: a single message goes to {@code /emails}, anything larger to
+ * {@code /emails/batch}, both with an {@code Idempotency-Key} header. One shared {@link HttpClient}
+ * keeps its connections alive between calls.
+ */
+@Component
+@Slf4j
+public class ResendEmailTransport implements EmailTransport {
+
+    // Resend accepts at most 100 emails per batch call
+    static final int MAX_BATCH_SIZE = 100;
+
+    record ResendEmail(String from, List<String> to, String subject, String text) {
+    }
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI emailsUri;
+    private final URI batchUri;
+    private final String authorization;
+    private final Duration requestTimeout;
+
+    public ResendEmailTransport(@Value("${resend.api.base-url:https://api.resend.com}") String baseUrl,
+                                @Value("${resend.api.key:}") String apiKey,
+                                @Value("${resend.api.timeout-ms:10000}") long timeoutMs,
+                                ObjectMapper objectMapper) {
+        String base = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.emailsUri = URI.create(base + "/emails");
+        this.batchUri = URI.create(base + "/emails/batch");
+        this.authorization = "Bearer " + apiKey;
+        this.requestTimeout = Duration.ofMillis(timeoutMs);
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(requestTimeout)
+                .build();
+    }
+
+    @Override
+    public void send(List<EmailMessage> messages, String idempotencyKey) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        List<ResendEmail> emails = messages.stream()
+                .map(m -> new ResendEmail(m.getFrom(), List.of(m.getTo()), m.getSubject(), m.getText()))
+                .toList();
+
+        byte[] body;
+        try {
+            body = emails.size() == 1
+                    ? objectMapper.writeValueAsBytes(emails.get(0))
+                    : objectMapper.writeValueAsBytes(emails);
+        } catch (JsonProcessingException e) {
+            throw new EmailDeliveryException("Could not serialize email batch", false, e);
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(emails.size() == 1 ? emailsUri : batchUri)
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .header("Authorization", authorization)
+                .header("Idempotency-Key", idempotencyKey)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new EmailDeliveryException("Resend API call failed: " + e.getMessage(), true, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EmailDeliveryException("Interrupted while calling Resend API", true, e);
+        }
+
+        int status = response.statusCode();
+        if (status / 100 != 2) {
+            boolean retryable = status == 429 || status >= 500;
+            throw new EmailDeliveryException("Resend API returned " + status + ": " + response.body(), retryable);
+        }
+        log.debug("Resend accepted {} email(s)", emails.size());
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+}
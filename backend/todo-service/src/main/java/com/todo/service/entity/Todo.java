@@ -1,5 +1,7 @@
 package com.todo.service.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -18,8 +20,11 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Todo {
 
+    // Pooled table generator: MySQL has no sequences, and IDENTITY would disable insert batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "todo_ids")
+    @TableGenerator(name = "todo_ids", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "todos", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Title is required")
@@ -52,6 +57,24 @@ public class Todo {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    // Set once the due-date reminder has been claimed; cleared when the due date changes.
+    // Internal bookkeeping, so claims do not change what clients see (and their ETags)
+    @JsonIgnore
+    @Column(name = "reminded_at")
+    private LocalDateTime remindedAt;
+
+    // The user's todo_stats.version as of the last write to this row; clients see it only through sync tokens
+    @JsonIgnore
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
+
+    // Bumped by every change clients can see; served as the single-todo ETag and checked against If-Match.
+    // Set by the server only, so a version in a request body is ignored
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    private long version;
+
     public enum Priority {
         LOW, MEDIUM, HIGH, URGENT
     }
@@ -0,0 +1,59 @@
+package com.todo.service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "todo_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoStats {
+
+    @Id
+    @Column(name = "user_id")
+    private String userId;
+
+    @Column(nullable = false)
+    private long total;
+
+    @Column(nullable = false)
+    private long completed;
+
+    @Column(name = "low_count", nullable = false)
+    private long lowCount;
+
+    @Column(name = "medium_count", nullable = false)
+    private long mediumCount;
+
+    @Column(name = "high_count", nullable = false)
+    private long highCount;
+
+    @Column(name = "urgent_count", nullable = false)
+    private long urgentCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Bumped on every write to the user's todos; a change counter, not a JPA @Version
+    @Column(nullable = false)
+    private long version;
+
+    public TodoStats(String userId) {
+        this.userId = userId;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public long countFor(Todo.Priority priority) {
+        return switch (priority) {
+            case LOW -> lowCount;
+            case MEDIUM -> mediumCount;
+            case HIGH -> highCount;
+            case URGENT -> urgentCount;
+        };
+    }
+}
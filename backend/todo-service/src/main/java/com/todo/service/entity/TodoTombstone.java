@@ -0,0 +1,39 @@
+package com.todo.service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Record of a deleted todo, served to delta sync clients until the retention purge removes it.
+ */
+@Entity
+@Table(name = "todo_tombstones")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoTombstone implements Persistable<Long> {
+
+    @Id
+    @Column(name = "todo_id")
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    // Only ever inserted: skips the lookup save() would otherwise make for an assigned id
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -0,0 +1,27 @@
+package com.todo.service.jdbc;
+
+/**
+ * SQL statements executed on the current thread, as counted by {@link StatementObserver}. A batch counts
+ * once, when it is executed. Meant for checks that a service call stays within a statement budget:
+ *
+ * <pre>long before = StatementCounter.current();
+ * todoService.getTodosPage(userId, 50, null);
+ * long statements = StatementCounter.current() - before;</pre>
+ *
+ * Statements run on other threads, such as {@code @Async} listeners, are not included.
+ */
+public final class StatementCounter {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    private StatementCounter() {
+    }
+
+    public static long current() {
+        return COUNT.get()[0];
+    }
+
+    static void increment() {
+        COUNT.get()[0]++;
+    }
+}
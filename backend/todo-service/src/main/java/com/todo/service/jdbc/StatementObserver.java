@@ -0,0 +1,180 @@
+package com.todo.service.jdbc;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps the application's DataSource to count every executed statement per thread ({@link StatementCounter})
+ * and to log statements slower than {@code app.jdbc.slow-query-ms}, with their bound parameters and the
+ * application method that ran them. Hibernate's own slow query log has neither.
+ * <p>
+ * Bound parameters are only logged with {@code app.jdbc.slow-query-log-parameters}, and never for statements
+ * on {@code users} or {@code verification_codes}, whose values include password hashes and verification codes.
+ */
+@Component
+@ConditionalOnProperty(name = "app.jdbc.observe", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class StatementObserver implements BeanPostProcessor {
+
+    private static final String APPLICATION_PACKAGE = "com.todo.service.";
+    private static final int MAX_LOGGED_PARAMETERS = 32;
+    private static final int MAX_LOGGED_VALUE_LENGTH = 100;
+    private static final Pattern SENSITIVE_TABLES =
+            Pattern.compile("\\b(users|verification_codes)\\b", Pattern.CASE_INSENSITIVE);
+
+    private final long slowQueryNanos;
+    private final boolean logParameters;
+
+    public StatementObserver(@Value("${app.jdbc.slow-query-ms:200}") long slowQueryMillis,
+                             @Value("${app.jdbc.slow-query-log-parameters:false}") boolean logParameters) {
+        this.slowQueryNanos = slowQueryMillis < 0 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(slowQueryMillis);
+        this.logParameters = logParameters;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return proxy(DataSource.class, new Passthrough(dataSource));
+        }
+        return bean;
+    }
+
+    private static Object proxy(Class<?> type, InvocationHandler handler) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Proxies the connections and statements handed out, in the interface the caller asked for
+    private Object wrap(Object result, Method method, Object[] args) {
+        Class<?> returnType = method.getReturnType();
+        if (result instanceof Connection connection && returnType == Connection.class) {
+            return proxy(Connection.class, new Passthrough(connection));
+        }
+        if (result instanceof Statement && Statement.class.isAssignableFrom(returnType)) {
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+            return proxy(returnType, new ObservedStatement(result, sql));
+        }
+        return result;
+    }
+
+    private final class Passthrough implements InvocationHandler {
+
+        private final Object target;
+
+        Passthrough(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            return wrap(call(target, method, args), method, args);
+        }
+    }
+
+    private final class ObservedStatement implements InvocationHandler {
+
+        private final Object target;
+        private final String preparedSql;
+        private final boolean prepared;
+        private final List<Object> parameters;
+
+        ObservedStatement(Object target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.prepared = target instanceof PreparedStatement;
+            this.parameters = prepared && logParameters && !isSensitive(preparedSql) ? new ArrayList<>() : null;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (parameters != null) {
+                recordParameter(name, args);
+            }
+            if (!name.startsWith("execute")) {
+                return call(target, method, args);
+            }
+            StatementCounter.increment();
+            long start = System.nanoTime();
+            try {
+                return call(target, method, args);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                if (elapsed >= slowQueryNanos) {
+                    logSlow(elapsed, name, args);
+                }
+            }
+        }
+
+        // setString(1, "x"), setObject(2, v, type) and friends; positions are 1-based
+        private void recordParameter(String name, Object[] args) {
+            if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index
+                    && index >= 1 && index <= MAX_LOGGED_PARAMETERS) {
+                while (parameters.size() < index) {
+                    parameters.add(null);
+                }
+                parameters.set(index - 1, name.equals("setNull") ? null : args[1]);
+            }
+        }
+
+        private void logSlow(long elapsedNanos, String name, Object[] args) {
+            String sql = !prepared && args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+            if (name.equals("executeBatch")) {
+                sql = "[batch] " + sql;
+            }
+            String values = parameters != null ? " " + describe(parameters)
+                    : logParameters && isSensitive(sql) ? " [redacted]" : "";
+            log.warn("Slow SQL ({} ms) from {}: {}{}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), caller(), sql, values);
+        }
+    }
+
+    // The innermost application frame, typically the service method; Spring proxies and this package are skipped
+    private static String caller() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE)
+                        && !frame.getClassName().startsWith(StatementObserver.class.getPackageName() + ".")
+                        && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1)
+                        + "." + frame.getMethodName())
+                .orElse("unknown"));
+    }
+
+    private static boolean isSensitive(String sql) {
+        return sql != null && SENSITIVE_TABLES.matcher(sql).find();
+    }
+
+    private static String describe(List<Object> parameters) {
+        List<String> values = new ArrayList<>(parameters.size());
+        for (Object value : parameters) {
+            String text = value instanceof byte[] bytes ? "<" + bytes.length + " bytes>" : String.valueOf(value);
+            values.add(text.length() > MAX_LOGGED_VALUE_LENGTH ? text.substring(0, MAX_LOGGED_VALUE_LENGTH) + "..." : text);
+        }
+        return values.toString();
+    }
+}
@@ -0,0 +1,236 @@
+package com.todo.service.ratelimit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Rate limits the auth endpoints that hash a password, look users up and send email, before any of that
+ * work starts. Each endpoint has its own limit per client IP and per username or email
+ * ({@code app.rate-limit.<endpoint>.ip} and {@code .account}); the IP is checked before the body is read.
+ * A limited request gets {@code 429 Too Many Requests} with {@code Retry-After} in seconds.
+ * <p>
+ * The client IP is {@link HttpServletRequest#getRemoteAddr()}, so behind a proxy set
+ * {@code server.forward-headers-strategy} for it to be the client's rather than the proxy's.
+ */
+@Component
+@Slf4j
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+
+    private static final List<String> ENDPOINTS = List.of("register", "login", "forgot-password", "resend-verification");
+    private static final List<String> ACCOUNT_FIELDS = List.of("usernameOrEmail", "username", "email");
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int maxBodyBytes;
+    private final Map<String, Policy> policies = new HashMap<>();
+
+    public AuthRateLimitFilter(RateLimiter rateLimiter, ObjectMapper objectMapper,
+                               Environment environment, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.enabled = environment.getProperty("app.rate-limit.enabled", Boolean.class, true);
+        this.maxBodyBytes = environment.getProperty("app.rate-limit.max-body-bytes", Integer.class, 16_384);
+        for (String endpoint : ENDPOINTS) {
+            RateLimit ip = RateLimit.parse(environment.getProperty("app.rate-limit." + endpoint + ".ip"));
+            RateLimit account = RateLimit.parse(environment.getProperty("app.rate-limit." + endpoint + ".account"));
+            if (ip != null || account != null) {
+                policies.put("/api/auth/" + endpoint, new Policy(endpoint, ip, account, meterRegistry));
+                log.info("Rate limiting /api/auth/{}: per IP {}, per account {}", endpoint, ip, account);
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"POST".equals(request.getMethod()) || !policies.containsKey(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        Policy policy = policies.get(request.getRequestURI());
+        if (policy.ip != null) {
+            long wait = rateLimiter.tryAcquire(policy.ipScope, request.getRemoteAddr(), policy.ip);
+            if (wait > 0) {
+                policy.limitedByIp.increment();
+                reject(response, wait);
+                return;
+            }
+        }
+        if (policy.account == null) {
+            policy.allowed.increment();
+            chain.doFilter(request, response);
+            return;
+        }
+
+        // The account comes from the JSON body, so read it once here and replay it to the controller
+        byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+        if (body.length > maxBodyBytes) {
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body too large");
+            return;
+        }
+        for (String account : accounts(body)) {
+            long wait = rateLimiter.tryAcquire(policy.accountScope, account, policy.account);
+            if (wait > 0) {
+                policy.limitedByAccount.increment();
+                reject(response, wait);
+                return;
+            }
+        }
+        policy.allowed.increment();
+        chain.doFilter(new CachedBodyRequest(request, body), response);
+    }
+
+    // Every username or email the body names, lower-cased; a body that is not JSON is left for the controller to reject
+    private List<String> accounts(byte[] body) {
+        List<String> accounts = new ArrayList<>(2);
+        JsonNode json;
+        try {
+            json = objectMapper.readTree(body);
+        } catch (IOException e) {
+            return accounts;
+        }
+        if (json == null || !json.isObject()) {
+            return accounts;
+        }
+        for (String field : ACCOUNT_FIELDS) {
+            JsonNode value = json.get(field);
+            if (value != null && value.isTextual() && !value.textValue().isBlank()) {
+                String account = value.textValue().trim().toLowerCase(Locale.ROOT);
+                if (!accounts.contains(account)) {
+                    accounts.add(account);
+                }
+            }
+        }
+        return accounts;
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long seconds = Math.max(1, (waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        writeError(response, HttpStatus.TOO_MANY_REQUESTS, "Too many requests, try again in " + seconds + " seconds");
+    }
+
+    // Same shape as AuthController's error responses
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of("message", message));
+    }
+
+    private static final class Policy {
+
+        private final RateLimit ip;
+        private final RateLimit account;
+        private final String ipScope;
+        private final String accountScope;
+        private final Counter allowed;
+        private final Counter limitedByIp;
+        private final Counter limitedByAccount;
+
+        Policy(String endpoint, RateLimit ip, RateLimit account, MeterRegistry meterRegistry) {
+            this.ip = ip;
+            this.account = account;
+            this.ipScope = endpoint + ":ip";
+            this.accountScope = endpoint + ":account";
+            this.allowed = counter(meterRegistry, endpoint, "allowed");
+            this.limitedByIp = counter(meterRegistry, endpoint, "limited-ip");
+            this.limitedByAccount = counter(meterRegistry, endpoint, "limited-account");
+        }
+
+        private static Counter counter(MeterRegistry meterRegistry, String endpoint, String result) {
+            return Counter.builder("rate.limit.requests")
+                    .tag("endpoint", endpoint)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+    }
+
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException("The body has already been read");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.todo.service.ratelimit;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+
+/**
+ * {@code capacity} requests per period: a full bucket allows a burst of {@code capacity}, after which one
+ * token comes back every {@code intervalNanos}.
+ */
+public record RateLimit(int capacity, long intervalNanos) {
+
+    public RateLimit {
+        if (capacity < 1 || intervalNanos < 1) {
+            throw new IllegalArgumentException("A rate limit needs a positive capacity and period");
+        }
+    }
+
+    // "20/1m" is 20 requests a minute; "off" or an empty value means no limit and returns null
+    public static RateLimit parse(String spec) {
+        if (spec == null || spec.isBlank() || spec.trim().equalsIgnoreCase("off")) {
+            return null;
+        }
+        int slash = spec.indexOf('/');
+        if (slash < 0) {
+            throw new IllegalArgumentException("Rate limit must look like <requests>/<period>, e.g. 20/1m: " + spec);
+        }
+        int capacity = Integer.parseInt(spec.substring(0, slash).trim());
+        Duration period = DurationStyle.detectAndParse(spec.substring(slash + 1).trim());
+        return new RateLimit(capacity, period.toNanos() / Math.max(1, capacity));
+    }
+
+    // How far ahead of now a bucket's schedule may run before it is empty
+    long toleranceNanos() {
+        return capacity * intervalNanos;
+    }
+}
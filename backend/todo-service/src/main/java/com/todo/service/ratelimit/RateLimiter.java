@@ -0,0 +1,107 @@
+package com.todo.service.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token buckets keyed by scope and id, e.g. the login endpoint and a client IP, spread over a fixed number of
+ * maps so that each map has its own share of {@code max-buckets} and a full one is swept on its own.
+ * <p>
+ * Full buckets are dropped by a periodic sweep. If a map is still full of buckets in use, new ids share
+ * one overflow bucket per scope until room frees up: a flood of fresh keys then limits itself rather than
+ * pushing out the buckets of clients already being limited.
+ */
+@Component
+public class RateLimiter {
+
+    private static final long STRIPE_SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final ConcurrentHashMap<String, TokenBucket>[] stripes;
+    private final ConcurrentHashMap<String, TokenBucket> overflow = new ConcurrentHashMap<>();
+    private final AtomicLongArray nextStripeSweep;
+    private final int maxBucketsPerStripe;
+    private final Counter overflowed;
+
+    @SuppressWarnings("unchecked")
+    public RateLimiter(@Value("${app.rate-limit.max-buckets:100000}") int maxBuckets,
+                       @Value("${app.rate-limit.stripes:16}") int stripes,
+                       MeterRegistry meterRegistry) {
+        int count = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new ConcurrentHashMap[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.nextStripeSweep = new AtomicLongArray(count);
+        this.maxBucketsPerStripe = Math.max(1, maxBuckets / count);
+        this.overflowed = Counter.builder("rate.limit.overflow").register(meterRegistry);
+        Gauge.builder("rate.limit.buckets", this, RateLimiter::size).register(meterRegistry);
+    }
+
+    // 0 when the request may go ahead, otherwise the nanoseconds until the id's next token
+    public long tryAcquire(String scope, String id, RateLimit limit) {
+        long now = System.nanoTime();
+        String key = scope + ':' + id;
+        int index = stripeIndex(key);
+        ConcurrentHashMap<String, TokenBucket> stripe = stripes[index];
+        TokenBucket bucket = stripe.get(key);
+        if (bucket == null) {
+            bucket = newBucket(stripe, index, scope, key, now);
+        }
+        return bucket.tryAcquire(now, limit);
+    }
+
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, TokenBucket> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (ConcurrentHashMap<String, TokenBucket> stripe : stripes) {
+            sweep(stripe, now);
+        }
+    }
+
+    private TokenBucket newBucket(ConcurrentHashMap<String, TokenBucket> stripe, int index,
+                                  String scope, String key, long now) {
+        if (stripe.size() >= maxBucketsPerStripe) {
+            // At most one sweep per stripe a second, so a flood of new keys does not turn every request into one
+            long nextSweep = nextStripeSweep.get(index);
+            if (nextSweep - now <= 0 && nextStripeSweep.compareAndSet(index, nextSweep, now + STRIPE_SWEEP_INTERVAL_NANOS)) {
+                sweep(stripe, now);
+            }
+            if (stripe.size() >= maxBucketsPerStripe) {
+                overflowed.increment();
+                return overflow.computeIfAbsent(scope, s -> new TokenBucket(now));
+            }
+        }
+        TokenBucket created = new TokenBucket(now);
+        TokenBucket existing = stripe.putIfAbsent(key, created);
+        return existing != null ? existing : created;
+    }
+
+    // A request racing the removal may take its token from the dropped bucket; that costs one token of slack at most
+    private static void sweep(ConcurrentHashMap<String, TokenBucket> stripe, long now) {
+        stripe.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    // Picks the stripe from the high bits of the hash; the map inside uses the low ones for its own bins
+    private int stripeIndex(String key) {
+        if (stripes.length == 1) {
+            return 0;
+        }
+        return (key.hashCode() * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(stripes.length));
+    }
+}
@@ -0,0 +1,50 @@
+package com.todo.service.ratelimit;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A token bucket kept as a single timestamp (the generic cell rate algorithm): {@code due} is when the bucket
+ * would be full again. Taking a token pushes it one interval further, and the bucket is empty once it runs
+ * more than {@code capacity} intervals ahead of now. One compare-and-set per request, no lock and no refill
+ * thread; the limit is passed in rather than stored, so a bucket is one object with one long.
+ */
+final class TokenBucket {
+
+    private static final VarHandle DUE;
+
+    static {
+        try {
+            DUE = MethodHandles.lookup().findVarHandle(TokenBucket.class, "due", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile long due;
+
+    TokenBucket(long nowNanos) {
+        this.due = nowNanos;
+    }
+
+    // 0 when a token was taken, otherwise the nanoseconds until one will be available
+    long tryAcquire(long nowNanos, RateLimit limit) {
+        while (true) {
+            long current = due;
+            // nanoTime may wrap, so compare by subtraction
+            long next = (current - nowNanos < 0 ? nowNanos : current) + limit.intervalNanos();
+            long wait = next - nowNanos - limit.toleranceNanos();
+            if (wait > 0) {
+                return wait;
+            }
+            if (DUE.compareAndSet(this, current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // A full bucket holds no state a fresh one would not, so it can be dropped
+    boolean isFull(long nowNanos) {
+        return due - nowNanos <= 0;
+    }
+}
@@ -0,0 +1,20 @@
+package com.todo.service.repository;
+
+import com.todo.service.dto.TodoFilter;
+import com.todo.service.entity.Todo;
+
+import java.util.List;
+
+/**
+ * Filtered reads whose WHERE clause depends on which filters are set, so each combination can use the
+ * composite index for its leading column instead of a catch-all {@code :param IS NULL OR ...} query.
+ * Mixed into {@link TodoRepository}.
+ */
+public interface TodoFilterRepository {
+
+    /**
+     * Locks and returns up to {@code limit} of the user's todos that match the filter and have an id above
+     * {@code afterId}, in id order. Must run inside a transaction, which holds the row locks until it ends.
+     */
+    List<Todo> lockMatching(String userId, TodoFilter filter, long afterId, int limit);
+}
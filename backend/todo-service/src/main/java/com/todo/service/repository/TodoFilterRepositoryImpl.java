@@ -0,0 +1,47 @@
+package com.todo.service.repository;
+
+import com.todo.service.dto.TodoFilter;
+import com.todo.service.entity.Todo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.List;
+
+class TodoFilterRepositoryImpl implements TodoFilterRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Todo> lockMatching(String userId, TodoFilter filter, long afterId, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT t FROM Todo t WHERE t.userId = :userId AND t.id > :afterId");
+        if (filter.getCompleted() != null) {
+            jpql.append(" AND t.completed = :completed");
+        }
+        if (filter.getPriority() != null) {
+            jpql.append(" AND t.priority = :priority");
+        }
+        if (filter.getDueBefore() != null) {
+            jpql.append(" AND t.dueDate < :dueBefore");
+        }
+        jpql.append(" ORDER BY t.id ASC");
+
+        TypedQuery<Todo> query = entityManager.createQuery(jpql.toString(), Todo.class)
+                .setParameter("userId", userId)
+                .setParameter("afterId", afterId);
+        if (filter.getCompleted() != null) {
+            query.setParameter("completed", filter.getCompleted());
+        }
+        if (filter.getPriority() != null) {
+            query.setParameter("priority", filter.getPriority());
+        }
+        if (filter.getDueBefore() != null) {
+            query.setParameter("dueBefore", filter.getDueBefore());
+        }
+        return query.setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,19 @@
+package com.todo.service.repository;
+
+import com.todo.service.dto.TodoPatch;
+
+import java.time.LocalDateTime;
+
+/**
+ * Partial updates whose SET list depends on the patch, which a fixed {@code @Query} cannot express.
+ * Mixed into {@link TodoRepository}.
+ */
+public interface TodoPatchRepository {
+
+    /**
+     * Writes only the patched columns, with {@code updated_at}, the row version and {@code change_seq}, in one
+     * UPDATE guarded by the owner and, when given, the expected version. Returns the number of rows updated,
+     * 0 or 1.
+     */
+    int patch(Long id, String userId, TodoPatch patch, Long expectedVersion, long changeSeq, LocalDateTime now);
+}
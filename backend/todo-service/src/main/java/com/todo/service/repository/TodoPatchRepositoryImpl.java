@@ -0,0 +1,72 @@
+package com.todo.service.repository;
+
+import com.todo.service.dto.TodoPatch;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.time.LocalDateTime;
+
+class TodoPatchRepositoryImpl implements TodoPatchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int patch(Long id, String userId, TodoPatch patch, Long expectedVersion, long changeSeq,
+                     LocalDateTime now) {
+        StringBuilder jpql = new StringBuilder("UPDATE Todo t SET t.updatedAt = :now, t.version = t.version + 1")
+                .append(", t.changeSeq = :changeSeq");
+        if (patch.isTitleSet()) {
+            jpql.append(", t.title = :title");
+        }
+        if (patch.isDescriptionSet()) {
+            jpql.append(", t.description = :description");
+        }
+        if (patch.isCompletedSet()) {
+            jpql.append(", t.completed = :completed");
+        }
+        if (patch.isPrioritySet()) {
+            jpql.append(", t.priority = :priority");
+        }
+        if (patch.isDueDateSet()) {
+            // A new due date gets its own reminder. Assigned before due_date, which MySQL would otherwise
+            // compare after updating it
+            jpql.append(", t.remindedAt = CASE WHEN t.dueDate = :dueDate THEN t.remindedAt ELSE NULL END")
+                .append(", t.dueDate = :dueDate");
+        }
+        jpql.append(" WHERE t.id = :id AND t.userId = :userId");
+        if (expectedVersion != null) {
+            jpql.append(" AND t.version = :expectedVersion");
+        }
+
+        // As @Modifying(flushAutomatically = true, clearAutomatically = true)
+        entityManager.flush();
+        Query query = entityManager.createQuery(jpql.toString())
+                .setParameter("now", now)
+                .setParameter("changeSeq", changeSeq)
+                .setParameter("id", id)
+                .setParameter("userId", userId);
+        if (patch.isTitleSet()) {
+            query.setParameter("title", patch.getTitle());
+        }
+        if (patch.isDescriptionSet()) {
+            query.setParameter("description", patch.getDescription());
+        }
+        if (patch.isCompletedSet()) {
+            query.setParameter("completed", patch.isCompleted());
+        }
+        if (patch.isPrioritySet()) {
+            query.setParameter("priority", patch.getPriority());
+        }
+        if (patch.isDueDateSet()) {
+            query.setParameter("dueDate", patch.getDueDate());
+        }
+        if (expectedVersion != null) {
+            query.setParameter("expectedVersion", expectedVersion);
+        }
+        int updated = query.executeUpdate();
+        entityManager.clear();
+        return updated;
+    }
+}
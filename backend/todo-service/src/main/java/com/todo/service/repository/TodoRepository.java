@@ -1,16 +1,27 @@
 package com.todo.service.repository;
 
+import com.todo.service.dto.TodoReminder;
 import com.todo.service.entity.Todo;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TodoRepository extends JpaRepository<Todo, Long> {
+public interface TodoRepository extends JpaRepository<Todo, Long>, TodoPatchRepository, TodoFilterRepository {
 
     List<Todo> findByUserIdOrderByCreatedAtDesc(String userId);
 
@@ -26,9 +37,216 @@ public interface TodoRepository extends JpaRepository<Todo, Long> {
                                    @Param("startDate") LocalDateTime startDate, 
                                    @Param("endDate") LocalDateTime endDate);
 
+    // Export: rows arrive in fetch-size chunks from a cursor instead of one materialized list. Read-only
+    // entities skip Hibernate's dirty-checking snapshots; the caller must close the stream inside a transaction.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Todo t WHERE t.userId = :userId ORDER BY t.createdAt DESC, t.id DESC")
+    Stream<Todo> streamByUserId(@Param("userId") String userId);
+
     long countByUserIdAndCompleted(String userId, boolean completed);
 
-    @Query("SELECT t FROM Todo t WHERE t.dueDate BETWEEN :startTime AND :endTime AND t.completed = false")
-    List<Todo> findTodosDueBetween(@Param("startTime") LocalDateTime startTime, 
-                                  @Param("endTime") LocalDateTime endTime);
+    // Summary counters: one row per (user, completed, priority) group
+    @Query("SELECT t.userId, t.completed, t.priority, COUNT(t) FROM Todo t WHERE t.userId IN :userIds " +
+           "GROUP BY t.userId, t.completed, t.priority")
+    List<Object[]> countGroupsByUserIds(@Param("userIds") Collection<String> userIds);
+
+    @Query("SELECT DISTINCT t.userId FROM Todo t WHERE t.userId > :after ORDER BY t.userId")
+    List<String> findUserIdsAfter(@Param("after") String after, Pageable pageable);
+
+    // Pending todos due before the end of today, split into overdue and due-later-today in one range scan
+    @Query("SELECT SUM(CASE WHEN t.dueDate < :now THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN t.dueDate >= :now THEN 1 ELSE 0 END) " +
+           "FROM Todo t WHERE t.userId = :userId AND t.completed = false AND t.dueDate < :endOfDay")
+    List<Object[]> countPendingDue(@Param("userId") String userId,
+                                   @Param("now") LocalDateTime now,
+                                   @Param("endOfDay") LocalDateTime endOfDay);
+
+    // Keyset pages: ordered by (created_at, id) or (due_date, id) so each page seeks from the previous cursor
+    @Query("SELECT t FROM Todo t WHERE t.userId = :userId ORDER BY t.createdAt DESC, t.id DESC")
+    List<Todo> findFirstPage(@Param("userId") String userId, Pageable pageable);
+
+    @Query("SELECT t FROM Todo t WHERE t.userId = :userId " +
+           "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<Todo> findPageAfter(@Param("userId") String userId,
+                             @Param("createdAt") LocalDateTime createdAt,
+                             @Param("id") Long id,
+                             Pageable pageable);
+
+    @Query("SELECT t FROM Todo t WHERE t.userId = :userId AND t.completed = :completed " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<Todo> findFirstPageByStatus(@Param("userId") String userId,
+                                     @Param("completed") boolean completed,
+                                     Pageable pageable);
+
+    @Query("SELECT t FROM Todo t WHERE t.userId = :userId AND t.completed = :completed " +
+           "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<Todo> findPageByStatusAfter(@Param("userId") String userId,
+                                     @Param("completed") boolean completed,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+
+    @Query("SELECT t FROM Todo t WHERE t.userId = :userId AND t.priority = :priority " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<Todo> findFirstPageByPriority(@Param("userId") String userId,
+                                       @Param("priority") Todo.Priority priority,
+                                       Pageable pageable);
+
+    @Query("SELECT t FROM Todo t WHERE t.userId = :userId AND t.priority = :priority " +
+           "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<Todo> findPageByPriorityAfter(@Param("userId") String userId,
+                                       @Param("priority") Todo.Priority priority,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
+    @Query("SELECT t FROM Todo t WHERE t.userId = :userId AND t.dueDate <= :date ORDER BY t.dueDate ASC, t.id ASC")
+    List<Todo> findFirstOverduePage(@Param("userId") String userId,
+                                    @Param("date") LocalDateTime date,
+                                    Pageable pageable);
+
+    @Query("SELECT t FROM Todo t WHERE t.userId = :userId AND t.dueDate <= :date " +
+           "AND (t.dueDate > :dueDate OR (t.dueDate = :dueDate AND t.id > :id)) " +
+           "ORDER BY t.dueDate ASC, t.id ASC")
+    List<Todo> findOverduePageAfter(@Param("userId") String userId,
+                                    @Param("date") LocalDateTime date,
+                                    @Param("dueDate") LocalDateTime dueDate,
+                                    @Param("id") Long id,
+                                    Pageable pageable);
+
+    @Query("SELECT t FROM Todo t WHERE t.userId = :userId AND t.dueDate BETWEEN :startDate AND :endDate " +
+           "ORDER BY t.dueDate ASC, t.id ASC")
+    List<Todo> findFirstDateRangePage(@Param("userId") String userId,
+                                      @Param("startDate") LocalDateTime startDate,
+                                      @Param("endDate") LocalDateTime endDate,
+                                      Pageable pageable);
+
+    @Query("SELECT t FROM Todo t WHERE t.userId = :userId AND t.dueDate BETWEEN :startDate AND :endDate " +
+           "AND (t.dueDate > :dueDate OR (t.dueDate = :dueDate AND t.id > :id)) " +
+           "ORDER BY t.dueDate ASC, t.id ASC")
+    List<Todo> findDateRangePageAfter(@Param("userId") String userId,
+                                      @Param("startDate") LocalDateTime startDate,
+                                      @Param("endDate") LocalDateTime endDate,
+                                      @Param("dueDate") LocalDateTime dueDate,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+
+    // Batch operations take ids already checked against findOwners; user_id never changes after insert
+    @Query("SELECT t.id AS id, t.userId AS userId FROM Todo t WHERE t.id IN :ids")
+    List<TodoOwner> findOwners(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Todo t SET t.completed = CASE WHEN t.completed = true THEN false ELSE true END, " +
+           "t.updatedAt = :now, t.version = t.version + 1 WHERE t.id IN :ids")
+    int toggleByIds(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Todo t WHERE t.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Todo t SET t.changeSeq = :changeSeq WHERE t.id IN :ids")
+    int stampChangeSeq(@Param("ids") Collection<Long> ids, @Param("changeSeq") long changeSeq);
+
+    // Single-todo writes: one statement each, guarded by the owner and, for If-Match, the row version
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Todo t SET t.completed = CASE WHEN t.completed = true THEN false ELSE true END, " +
+           "t.updatedAt = :now, t.version = t.version + 1 " +
+           "WHERE t.id = :id AND t.userId = :userId AND (:expectedVersion IS NULL OR t.version = :expectedVersion)")
+    int toggle(@Param("id") Long id,
+               @Param("userId") String userId,
+               @Param("expectedVersion") Long expectedVersion,
+               @Param("now") LocalDateTime now);
+
+    // Copies the user's version, just bumped by this transaction, without a round trip to read it first
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Todo t SET t.changeSeq = (SELECT s.version FROM TodoStats s WHERE s.userId = t.userId) " +
+           "WHERE t.id = :id")
+    int stampCurrentChangeSeq(@Param("id") Long id);
+
+    // Tells a missing todo from a version mismatch after a guarded write updated nothing
+    @Query("SELECT t.version FROM Todo t WHERE t.id = :id AND t.userId = :userId")
+    Optional<Long> findVersion(@Param("id") Long id, @Param("userId") String userId);
+
+    // Patches lock the todo and the user's stats row in one read: the counters need the old values, and with the
+    // stats row held, the version the patch bumps it to is known without reading it back. Empty for a user
+    // without a stats row yet, who falls back to lockByIdAndUserId
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t, s FROM Todo t, TodoStats s WHERE t.id = :id AND t.userId = :userId AND s.userId = t.userId")
+    List<Object[]> lockWithStats(@Param("id") Long id, @Param("userId") String userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Todo t WHERE t.id = :id AND t.userId = :userId")
+    Optional<Todo> lockByIdAndUserId(@Param("id") Long id, @Param("userId") String userId);
+
+    // Delta sync: the user's rows written after (change_seq, id), in write order.
+    // The redundant change_seq >= :afterSeq bound turns the keyset condition into an index range.
+    @Query("SELECT t FROM Todo t WHERE t.userId = :userId AND t.changeSeq >= :afterSeq " +
+           "AND (t.changeSeq > :afterSeq OR t.id > :afterId) " +
+           "ORDER BY t.changeSeq ASC, t.id ASC")
+    List<Todo> findChangedAfter(@Param("userId") String userId,
+                                @Param("afterSeq") long afterSeq,
+                                @Param("afterId") long afterId,
+                                Pageable pageable);
+
+    // Reminder queue: pending, not yet reminded todos due by the horizon, keyset-ordered by (due_date, id).
+    // The row locks make concurrent instances wait and then skip rows another instance has claimed.
+    // The redundant due_date >= :afterDue bound turns the keyset condition into an index range.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Todo t WHERE t.remindedAt IS NULL AND t.completed = false " +
+           "AND t.dueDate >= :afterDue AND t.dueDate <= :horizon " +
+           "AND (t.dueDate > :afterDue OR t.id > :afterId) " +
+           "ORDER BY t.dueDate ASC, t.id ASC")
+    List<Todo> lockReminderCandidates(@Param("horizon") LocalDateTime horizon,
+                                      @Param("afterDue") LocalDateTime afterDue,
+                                      @Param("afterId") Long afterId,
+                                      Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Todo t SET t.remindedAt = :claimedAt WHERE t.id IN :ids AND t.remindedAt IS NULL")
+    int claimReminders(@Param("ids") Collection<Long> ids, @Param("claimedAt") LocalDateTime claimedAt);
+
+    // The ids among :ids that this run claimed, when claimReminders updated fewer rows than it was given
+    @Query("SELECT t.id FROM Todo t WHERE t.id IN :ids AND t.remindedAt = :claimedAt")
+    List<Long> findClaimedIds(@Param("ids") Collection<Long> ids, @Param("claimedAt") LocalDateTime claimedAt);
+
+    @Modifying
+    @Query("UPDATE Todo t SET t.remindedAt = NULL WHERE t.id IN :ids AND t.remindedAt = :claimedAt")
+    int releaseReminders(@Param("ids") Collection<Long> ids, @Param("claimedAt") LocalDateTime claimedAt);
+
+    @Query("SELECT new com.todo.service.dto.TodoReminder(t.id, t.title, t.dueDate, u.username, u.email) " +
+           "FROM Todo t LEFT JOIN User u ON u.username = t.userId " +
+           "WHERE t.id IN :ids ORDER BY t.dueDate ASC, t.id ASC")
+    List<TodoReminder> findReminders(@Param("ids") Collection<Long> ids);
+
+    // Search index builds read only the indexed text
+    @Query("SELECT t.id AS id, t.userId AS userId, t.title AS title, t.description AS description " +
+           "FROM Todo t WHERE t.userId = :userId")
+    List<TodoText> findTextByUserId(@Param("userId") String userId);
+
+    @Query("SELECT t.id AS id, t.userId AS userId, t.title AS title, t.description AS description " +
+           "FROM Todo t WHERE t.id > :afterId ORDER BY t.id ASC")
+    List<TodoText> findTextAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    interface TodoOwner {
+        Long getId();
+
+        String getUserId();
+    }
+
+    interface TodoText {
+        Long getId();
+
+        String getUserId();
+
+        String getTitle();
+
+        String getDescription();
+    }
 }
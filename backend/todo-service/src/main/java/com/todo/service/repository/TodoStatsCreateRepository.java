@@ -0,0 +1,16 @@
+package com.todo.service.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Creating a user's stats row when a concurrent first write may be creating it too, which needs SQL that
+ * differs per database. Mixed into {@link TodoStatsRepository}.
+ */
+public interface TodoStatsCreateRepository {
+
+    /**
+     * Inserts a zeroed row for the user unless one exists. On MySQL a row inserted concurrently by another
+     * transaction is skipped rather than failing this one on the duplicate key. Callers recount afterwards.
+     */
+    int insertEmptyIfAbsent(String userId, LocalDateTime now);
+}
@@ -0,0 +1,43 @@
+package com.todo.service.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.time.LocalDateTime;
+
+class TodoStatsCreateRepositoryImpl implements TodoStatsCreateRepository {
+
+    private static final String INSERT = "INSERT INTO todo_stats " +
+            "(user_id, total, completed, low_count, medium_count, high_count, urgent_count, updated_at, version) ";
+    // A no-op update on the duplicate key, so only the duplicate is tolerated and any other error still fails
+    private static final String MYSQL_SQL = INSERT +
+            "VALUES (:userId, 0, 0, 0, 0, 0, 0, :now, 0) ON DUPLICATE KEY UPDATE user_id = user_id";
+    // Portable, for H2 without MySQL mode; a concurrent first write can still fail on the primary key here
+    private static final String PORTABLE_SQL = INSERT +
+            "SELECT :userId, 0, 0, 0, 0, 0, 0, :now, 0 FROM (SELECT 1 AS seed) seed " +
+            "WHERE NOT EXISTS (SELECT 1 FROM todo_stats s WHERE s.user_id = :userId)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile String sql;
+
+    @Override
+    public int insertEmptyIfAbsent(String userId, LocalDateTime now) {
+        return entityManager.createNativeQuery(sql())
+                .setParameter("userId", userId)
+                .setParameter("now", now)
+                .executeUpdate();
+    }
+
+    private String sql() {
+        if (sql == null) {
+            boolean mysql = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect() instanceof MySQLDialect;
+            sql = mysql ? MYSQL_SQL : PORTABLE_SQL;
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,60 @@
+package com.todo.service.repository;
+
+import com.todo.service.entity.TodoStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TodoStatsRepository extends JpaRepository<TodoStats, String>, TodoStatsCreateRepository {
+
+    // Relative update so concurrent writers for the same user never overwrite each other
+    @Modifying
+    @Query("UPDATE TodoStats s SET s.total = s.total + :total, s.completed = s.completed + :completed, " +
+           "s.lowCount = s.lowCount + :low, s.mediumCount = s.mediumCount + :medium, " +
+           "s.highCount = s.highCount + :high, s.urgentCount = s.urgentCount + :urgent, " +
+           "s.version = s.version + 1, s.updatedAt = :now WHERE s.userId = :userId")
+    int applyDelta(@Param("userId") String userId,
+                   @Param("total") long total,
+                   @Param("completed") long completed,
+                   @Param("low") long low,
+                   @Param("medium") long medium,
+                   @Param("high") long high,
+                   @Param("urgent") long urgent,
+                   @Param("now") LocalDateTime now);
+
+    // A toggle flips the completed count by one, in the direction the todo's new status says. The todo row
+    // is read after the writer has updated it, so the counts follow the status it committed
+    @Modifying
+    @Query("UPDATE TodoStats s SET s.completed = s.completed + " +
+           "(SELECT CASE WHEN t.completed = true THEN 1 ELSE -1 END FROM Todo t WHERE t.id = :todoId), " +
+           "s.version = s.version + 1, s.updatedAt = :now WHERE s.userId = :userId")
+    int applyToggle(@Param("userId") String userId, @Param("todoId") Long todoId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE TodoStats s SET s.version = s.version + 1, s.updatedAt = :now WHERE s.userId = :userId")
+    int bumpVersion(@Param("userId") String userId, @Param("now") LocalDateTime now);
+
+    @Query("SELECT s.version FROM TodoStats s WHERE s.userId = :userId")
+    Optional<Long> findVersion(@Param("userId") String userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM TodoStats s WHERE s.userId IN :userIds")
+    List<TodoStats> lockByUserIds(@Param("userIds") Collection<String> userIds);
+
+    // Users whose todos are all gone keep their row, zeroed
+    @Modifying
+    @Query("UPDATE TodoStats s SET s.total = 0, s.completed = 0, s.lowCount = 0, s.mediumCount = 0, " +
+           "s.highCount = 0, s.urgentCount = 0, s.updatedAt = :now " +
+           "WHERE s.total <> 0 AND NOT EXISTS (SELECT t.id FROM Todo t WHERE t.userId = s.userId)")
+    int zeroOrphanedStats(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,31 @@
+package com.todo.service.repository;
+
+import com.todo.service.entity.TodoTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TodoTombstoneRepository extends JpaRepository<TodoTombstone, Long> {
+
+    @Query("SELECT t.id FROM TodoTombstone t WHERE t.userId = :userId " +
+           "AND t.changeSeq > :afterSeq AND t.changeSeq <= :upToSeq ORDER BY t.changeSeq ASC, t.id ASC")
+    List<Long> findDeletedIds(@Param("userId") String userId,
+                              @Param("afterSeq") long afterSeq,
+                              @Param("upToSeq") long upToSeq);
+
+    // One purge chunk: the page bounds the transaction, and the ids are then deleted by primary key
+    @Query("SELECT t.id FROM TodoTombstone t WHERE t.deletedAt < :cutoff ORDER BY t.deletedAt ASC")
+    List<Long> findIdsOlderThan(@Param("cutoff") LocalDateTime cutoff, Pageable page);
+
+    @Modifying
+    @Query("DELETE FROM TodoTombstone t WHERE t.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
@@ -1,9 +1,15 @@
 package com.todo.service.repository;
 
 import com.todo.service.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -18,4 +24,22 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
     
     boolean existsByEmail(String email);
+
+    // Keyset pages of just the unique handles, for rebuilding the availability filters
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email FROM User u WHERE u.id > :afterId ORDER BY u.id ASC")
+    List<UserHandles> findHandlesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Swaps the hash only while it is still the one that was checked, so a concurrent password reset wins
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE User u SET u.password = :upgraded WHERE u.id = :id AND u.password = :current")
+    int replacePassword(@Param("id") Long id, @Param("current") String current, @Param("upgraded") String upgraded);
+
+    interface UserHandles {
+        Long getId();
+
+        String getUsername();
+
+        String getEmail();
+    }
 }
@@ -1,6 +1,7 @@
 package com.todo.service.repository;
 
 import com.todo.service.entity.VerificationCode;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -9,17 +10,29 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface VerificationCodeRepository extends JpaRepository<VerificationCode, Long> {
 
-    Optional<VerificationCode> findByEmailAndCodeAndTypeAndUsedFalse(String email, String code, VerificationCode.CodeType type);
-
+    // Finds and uses up the code in one statement, so two concurrent verifications cannot both succeed
     @Modifying
     @Transactional
-    @Query("DELETE FROM VerificationCode v WHERE v.expiresAt < :now")
-    void deleteExpiredCodes(@Param("now") LocalDateTime now);
+    @Query("UPDATE VerificationCode v SET v.used = true WHERE v.email = :email AND v.type = :type " +
+           "AND v.code = :code AND v.used = false AND v.expiresAt > :now")
+    int consume(@Param("email") String email,
+                @Param("type") VerificationCode.CodeType type,
+                @Param("code") String code,
+                @Param("now") LocalDateTime now);
+
+    // One purge chunk: the page bounds the transaction, and the ids are then deleted by primary key
+    @Query("SELECT v.id FROM VerificationCode v WHERE v.expiresAt < :now ORDER BY v.expiresAt ASC")
+    List<Long> findExpiredIds(@Param("now") LocalDateTime now, Pageable page);
+
+    @Modifying
+    @Query("DELETE FROM VerificationCode v WHERE v.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
 
     @Modifying
     @Transactional
@@ -0,0 +1,60 @@
+package com.todo.service.search;
+
+import java.util.Arrays;
+
+/**
+ * The todos containing one term, as parallel arrays sorted by todo id: about 12 bytes a todo instead of a
+ * boxed map entry. New todos have the highest ids, so adding one is nearly always an append.
+ */
+final class Postings {
+
+    private long[] ids = new long[2];
+    private int[] weights = new int[2];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    long id(int index) {
+        return ids[index];
+    }
+
+    int weight(int index) {
+        return weights[index];
+    }
+
+    // 0 when the todo does not contain the term
+    int weightOf(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        return index < 0 ? 0 : weights[index];
+    }
+
+    void put(long id, int weight) {
+        int index = size > 0 && ids[size - 1] < id ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            weights[index] = weight;
+            return;
+        }
+        index = -index - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            weights = Arrays.copyOf(weights, size * 2);
+        }
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        System.arraycopy(weights, index, weights, index + 1, size - index);
+        ids[index] = id;
+        weights[index] = weight;
+        size++;
+    }
+
+    void remove(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        System.arraycopy(weights, index + 1, weights, index, size - index - 1);
+        size--;
+    }
+}
@@ -0,0 +1,206 @@
+package com.todo.service.search;
+
+import com.todo.service.cache.TodoCacheInvalidationBus;
+import com.todo.service.entity.Todo;
+import com.todo.service.repository.TodoRepository;
+import com.todo.service.repository.TodoRepository.TodoText;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Full-text index over todo titles and descriptions, one {@link UserTodoIndex} per user. It is built from
+ * the database at startup, or for a single user on that user's first search, and kept current from the
+ * {@link TodoTextChangedEvent}s of committed writes. Each node indexes the writes it makes itself and drops
+ * a user whose todos another node changed, announced on the {@link TodoCacheInvalidationBus}; the next
+ * search rebuilds it. At most {@code max-users} users are held, the least recently searched going first.
+ */
+@Component
+@Slf4j
+public class TodoSearchIndex {
+
+    public static final int MAX_QUERY_TERMS = 8;
+    private static final int GENERATION_STRIPES = 1024;
+    // Share of max-users dropped at once when full, so the ordering pass is paid once per that many builds
+    private static final int EVICTION_BATCH_DIVISOR = 10;
+
+    private final ConcurrentHashMap<String, UserTodoIndex> partitions = new ConcurrentHashMap<>();
+    // Bumped by every applied change; a build is only installed if its user's stripe did not move while it ran
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final TodoRepository todoRepository;
+    private final boolean rebuildOnStartup;
+    private final int rebuildPageSize;
+    private final int maxUsers;
+    private final Counter sizeEvictions;
+    private final Counter remoteInvalidations;
+
+    public TodoSearchIndex(TodoRepository todoRepository,
+                           TodoCacheInvalidationBus invalidationBus,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.todo-search.rebuild-on-startup:true}") boolean rebuildOnStartup,
+                           @Value("${app.todo-search.rebuild-page-size:1000}") int rebuildPageSize,
+                           @Value("${app.todo-search.max-users:10000}") int maxUsers) {
+        this.todoRepository = todoRepository;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.rebuildPageSize = rebuildPageSize;
+        this.maxUsers = maxUsers;
+        this.sizeEvictions = Counter.builder("todo.search.index.evictions").tag("cause", "size")
+                .register(meterRegistry);
+        this.remoteInvalidations = Counter.builder("todo.search.index.evictions").tag("cause", "remote")
+                .register(meterRegistry);
+        Gauge.builder("todo.search.index.users", partitions, ConcurrentHashMap::size).register(meterRegistry);
+        invalidationBus.subscribeRemote(this::invalidate);
+    }
+
+    /**
+     * Ids of the user's todos matching every term of {@code query}, best match first. Terms are split on
+     * anything but letters and digits, lower-cased and, from two characters up, matched as prefixes.
+     */
+    public List<Long> search(String userId, String query, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(UserTodoIndex.tokenize(query)));
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain a letter or digit");
+        }
+        if (terms.size() > MAX_QUERY_TERMS) {
+            throw new IllegalArgumentException("Search query cannot exceed " + MAX_QUERY_TERMS + " terms");
+        }
+        return partition(userId).search(terms, limit);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoTextChanged(TodoTextChangedEvent event) {
+        generations.incrementAndGet(stripe(event.userId()));
+        UserTodoIndex index = partitions.get(event.userId());
+        if (index == null) {
+            // Not built yet: the build reads the database, which already holds this change
+            return;
+        }
+        for (Todo todo : event.indexed()) {
+            index.put(todo.getId(), todo.getTitle(), todo.getDescription());
+        }
+        for (Long id : event.removed()) {
+            index.remove(id);
+        }
+    }
+
+    // Another node changed the user's todos: this index cannot apply the change, so it rebuilds on next search
+    public void invalidate(String userId) {
+        generations.incrementAndGet(stripe(userId));
+        if (partitions.remove(userId) != null) {
+            remoteInvalidations.increment();
+        }
+    }
+
+    // Keyset pages over the primary key, so the rebuild never holds more than one page of rows at a time.
+    // Only the first max-users users met are indexed; the rest are built on their first search.
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!rebuildOnStartup) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long[] startGenerations = new long[GENERATION_STRIPES];
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            startGenerations[i] = generations.get(i);
+        }
+        Map<String, UserTodoIndex> built = new HashMap<>();
+        long afterId = 0;
+        long rows = 0;
+        List<TodoText> page;
+        do {
+            page = todoRepository.findTextAfter(afterId, PageRequest.of(0, rebuildPageSize));
+            for (TodoText text : page) {
+                UserTodoIndex index = built.get(text.getUserId());
+                if (index == null && built.size() < maxUsers) {
+                    index = new UserTodoIndex();
+                    built.put(text.getUserId(), index);
+                }
+                if (index != null) {
+                    index.put(text.getId(), text.getTitle(), text.getDescription());
+                    rows++;
+                }
+                afterId = text.getId();
+            }
+        } while (page.size() == rebuildPageSize);
+
+        built.forEach((userId, index) -> {
+            int stripe = stripe(userId);
+            install(userId, index, stripe, startGenerations[stripe]);
+        });
+        log.info("Indexed {} todos for {} users for search in {} ms", rows, built.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    private UserTodoIndex partition(String userId) {
+        UserTodoIndex index = partitions.get(userId);
+        if (index != null) {
+            return index;
+        }
+        int stripe = stripe(userId);
+        long generation = generations.get(stripe);
+        UserTodoIndex built = new UserTodoIndex();
+        for (TodoText text : todoRepository.findTextByUserId(userId)) {
+            built.put(text.getId(), text.getTitle(), text.getDescription());
+        }
+        install(userId, built, stripe, generation);
+        // Answer from what we read even if it was not kept; it is as fresh as a database query
+        return built;
+    }
+
+    private void install(String userId, UserTodoIndex index, int stripe, long generation) {
+        if (maxUsers <= 0 || generations.get(stripe) != generation) {
+            return;
+        }
+        if (partitions.size() >= maxUsers) {
+            makeRoom();
+        }
+        partitions.putIfAbsent(userId, index);
+        // A change applied while we were installing may have missed the index we just added
+        if (generations.get(stripe) != generation) {
+            partitions.remove(userId, index);
+        }
+    }
+
+    // Drops the least recently searched users in one batch; they are rebuilt from the database if searched again
+    private synchronized void makeRoom() {
+        // Another thread may have made room while this one waited
+        if (partitions.size() < maxUsers) {
+            return;
+        }
+        int excess = partitions.size() - maxUsers + Math.max(1, maxUsers / EVICTION_BATCH_DIVISOR);
+        // Read each time once: searches keep moving them, which a sort comparing live values would trip over
+        List<Candidate> oldest = partitions.entrySet().stream()
+                .map(entry -> new Candidate(entry.getKey(), entry.getValue(), entry.getValue().lastSearchedMillis()))
+                .sorted(Comparator.comparingLong(Candidate::lastSearchedMillis))
+                .limit(excess)
+                .toList();
+        for (Candidate candidate : oldest) {
+            if (partitions.remove(candidate.userId(), candidate.index())) {
+                sizeEvictions.increment();
+            }
+        }
+    }
+
+    private static int stripe(String userId) {
+        return userId.hashCode() & (GENERATION_STRIPES - 1);
+    }
+
+    private record Candidate(String userId, UserTodoIndex index, long lastSearchedMillis) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.todo.service.search;
+
+import com.todo.service.entity.Todo;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published inside the transaction that created, edited or deleted some of the user's todos; the search
+ * index applies it once the transaction commits. Status changes leave the text alone and are not published.
+ */
+public record TodoTextChangedEvent(String userId, List<Todo> indexed, Collection<Long> removed) {
+
+    public static TodoTextChangedEvent indexed(String userId, List<Todo> todos) {
+        return new TodoTextChangedEvent(userId, todos, List.of());
+    }
+
+    public static TodoTextChangedEvent removed(String userId, Collection<Long> ids) {
+        return new TodoTextChangedEvent(userId, List.of(), ids);
+    }
+}
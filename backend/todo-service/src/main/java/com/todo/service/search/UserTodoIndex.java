@@ -0,0 +1,347 @@
+package com.todo.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * One user's inverted index: every term of every todo's title and description, sorted so a query term
+ * can be matched as a prefix with one range lookup. Searches share a read lock; writes take the write lock.
+ */
+final class UserTodoIndex {
+
+    static final int MAX_TERM_LENGTH = 64;
+    // A single letter or digit would expand to a large share of the vocabulary, so it only matches exactly
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int TITLE_WEIGHT = 3;
+    // A term that only starts with the query term ranks below an exact match
+    private static final double PREFIX_FACTOR = 0.5;
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Long, String[]> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile long lastSearchedMillis = System.currentTimeMillis();
+
+    void put(long id, String title, String description) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String term : tokenize(title)) {
+            weights.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(description)) {
+            weights.merge(term, 1, Integer::sum);
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            String[] documentTerms = new String[weights.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+                Map.Entry<String, Postings> existing = terms.ceilingEntry(entry.getKey());
+                String term = entry.getKey();
+                Postings postings;
+                if (existing != null && existing.getKey().equals(term)) {
+                    // Share the key instance rather than holding a second copy of the string per todo
+                    term = existing.getKey();
+                    postings = existing.getValue();
+                } else {
+                    postings = new Postings();
+                    terms.put(term, postings);
+                }
+                postings.put(id, entry.getValue());
+                documentTerms[i++] = term;
+            }
+            documents.put(id, documentTerms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the todos containing every query term, each term of two or more characters matching as a prefix,
+     * best first. A todo scores the sum over query terms of its best matching term's weight times that term's
+     * inverse document frequency. Terms are intersected from the rarest up, so a selective term keeps the work
+     * small however common the others are.
+     */
+    List<Long> search(List<String> queryTerms, int limit) {
+        lastSearchedMillis = System.currentTimeMillis();
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            List<QueryTerm> matches = new ArrayList<>(queryTerms.size());
+            for (String queryTerm : queryTerms) {
+                NavigableMap<String, Postings> expansions = queryTerm.length() < MIN_PREFIX_LENGTH
+                        ? terms.subMap(queryTerm, true, queryTerm, true)
+                        : terms.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false);
+                if (expansions.isEmpty()) {
+                    return List.of();
+                }
+                long cost = 0;
+                for (Postings postings : expansions.values()) {
+                    cost += postings.size();
+                }
+                matches.add(new QueryTerm(queryTerm, expansions, cost));
+            }
+            matches.sort(Comparator.comparingLong(QueryTerm::cost));
+
+            Candidates candidates = union(matches.get(0), documentCount);
+            for (int i = 1; i < matches.size() && candidates.size > 0; i++) {
+                candidates = intersect(candidates, matches.get(i), documentCount);
+            }
+            return top(candidates, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long lastSearchedMillis() {
+        return lastSearchedMillis;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); ) {
+            int codePoint = i < text.length() ? text.codePointAt(i) : ' ';
+            if (Character.isLetterOrDigit(codePoint)) {
+                token.appendCodePoint(Character.toLowerCase(codePoint));
+            } else if (!token.isEmpty()) {
+                if (token.length() <= MAX_TERM_LENGTH) {
+                    tokens.add(token.toString());
+                }
+                token.setLength(0);
+            }
+            i += Character.charCount(codePoint);
+        }
+        return tokens;
+    }
+
+    private void removeLocked(long id) {
+        String[] documentTerms = documents.remove(id);
+        if (documentTerms == null) {
+            return;
+        }
+        for (String term : documentTerms) {
+            Postings postings = terms.get(term);
+            postings.remove(id);
+            if (postings.size() == 0) {
+                terms.remove(term);
+            }
+        }
+    }
+
+    // Every todo containing one of the term's expansions, merged in id order, scored by its best expansion
+    private static Candidates union(QueryTerm match, int documentCount) {
+        Candidates union = new Candidates((int) match.cost());
+        if (match.expansions().size() == 1) {
+            Map.Entry<String, Postings> expansion = match.expansions().firstEntry();
+            Postings postings = expansion.getValue();
+            double termWeight = termWeight(match.text(), expansion.getKey(), postings, documentCount);
+            for (int i = 0; i < postings.size(); i++) {
+                union.ids[i] = postings.id(i);
+                union.scores[i] = postings.weight(i) * termWeight;
+            }
+            union.size = postings.size();
+            return union;
+        }
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>(match.expansions().size(),
+                Comparator.comparingLong(Cursor::id));
+        for (Map.Entry<String, Postings> expansion : match.expansions().entrySet()) {
+            Postings postings = expansion.getValue();
+            cursors.add(new Cursor(postings, termWeight(match.text(), expansion.getKey(), postings, documentCount)));
+        }
+        while (!cursors.isEmpty()) {
+            Cursor cursor = cursors.poll();
+            long id = cursor.id();
+            double score = cursor.score();
+            if (union.size > 0 && union.ids[union.size - 1] == id) {
+                union.scores[union.size - 1] = Math.max(union.scores[union.size - 1], score);
+            } else {
+                union.ids[union.size] = id;
+                union.scores[union.size++] = score;
+            }
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+        return union;
+    }
+
+    // The candidates that also contain one of the term's expansions, with that expansion's score added
+    private static Candidates intersect(Candidates candidates, QueryTerm match, int documentCount) {
+        double[] best = new double[candidates.size];
+        for (Map.Entry<String, Postings> expansion : match.expansions().entrySet()) {
+            Postings postings = expansion.getValue();
+            double termWeight = termWeight(match.text(), expansion.getKey(), postings, documentCount);
+            int candidateCount = candidates.size;
+            int postingCount = postings.size();
+            if ((long) Math.min(candidateCount, postingCount) * 8 < Math.max(candidateCount, postingCount)) {
+                // Very different sizes: look each element of the smaller side up in the larger one
+                if (postingCount < candidateCount) {
+                    for (int i = 0; i < postingCount; i++) {
+                        int index = Arrays.binarySearch(candidates.ids, 0, candidateCount, postings.id(i));
+                        if (index >= 0) {
+                            best[index] = Math.max(best[index], postings.weight(i) * termWeight);
+                        }
+                    }
+                } else {
+                    for (int i = 0; i < candidateCount; i++) {
+                        int weight = postings.weightOf(candidates.ids[i]);
+                        if (weight > 0) {
+                            best[i] = Math.max(best[i], weight * termWeight);
+                        }
+                    }
+                }
+            } else {
+                for (int i = 0, j = 0; i < candidateCount && j < postingCount; ) {
+                    long candidate = candidates.ids[i];
+                    long posting = postings.id(j);
+                    if (candidate < posting) {
+                        i++;
+                    } else if (candidate > posting) {
+                        j++;
+                    } else {
+                        best[i] = Math.max(best[i], postings.weight(j) * termWeight);
+                        i++;
+                        j++;
+                    }
+                }
+            }
+        }
+        Candidates matched = new Candidates(candidates.size);
+        for (int i = 0; i < candidates.size; i++) {
+            if (best[i] > 0) {
+                matched.ids[matched.size] = candidates.ids[i];
+                matched.scores[matched.size++] = candidates.scores[i] + best[i];
+            }
+        }
+        return matched;
+    }
+
+    private static double termWeight(String queryTerm, String term, Postings postings, int documentCount) {
+        double idf = Math.log(1 + (double) documentCount / postings.size());
+        return term.length() == queryTerm.length() ? idf : idf * PREFIX_FACTOR;
+    }
+
+    // Highest score first; equal scores put the newer (higher id) todo first
+    private static List<Long> top(Candidates candidates, int limit) {
+        // Min-heap of candidate indexes holding the best seen so far, its root the worst of them
+        int[] heap = new int[Math.min(limit, candidates.size)];
+        int size = 0;
+        // Newest first, so a tie with the heap's worst never displaces it
+        for (int i = candidates.size - 1; i >= 0; i--) {
+            if (size < heap.length) {
+                heap[size] = i;
+                siftUp(candidates, heap, size++);
+            } else if (candidates.ranksAbove(i, heap[0])) {
+                heap[0] = i;
+                siftDown(candidates, heap, size);
+            }
+        }
+        Long[] ranked = new Long[size];
+        while (size > 0) {
+            ranked[size - 1] = candidates.ids[heap[0]];
+            heap[0] = heap[--size];
+            siftDown(candidates, heap, size);
+        }
+        return Arrays.asList(ranked);
+    }
+
+    private static void siftUp(Candidates candidates, int[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!candidates.ranksAbove(heap[parent], heap[index])) {
+                return;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(Candidates candidates, int[] heap, int size) {
+        int index = 0;
+        while (true) {
+            int worst = index;
+            for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                if (candidates.ranksAbove(heap[worst], heap[child])) {
+                    worst = child;
+                }
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(heap, worst, index);
+            index = worst;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int swapped = heap[i];
+        heap[i] = heap[j];
+        heap[j] = swapped;
+    }
+
+    private record QueryTerm(String text, NavigableMap<String, Postings> expansions, long cost) {
+    }
+
+    // Matching todo ids in ascending order with their scores so far, as parallel arrays
+    private static final class Candidates {
+
+        final long[] ids;
+        final double[] scores;
+        int size;
+
+        Candidates(int capacity) {
+            ids = new long[capacity];
+            scores = new double[capacity];
+        }
+
+        boolean ranksAbove(int i, int j) {
+            return scores[i] > scores[j] || scores[i] == scores[j] && ids[i] > ids[j];
+        }
+    }
+
+    private static final class Cursor {
+
+        private final Postings postings;
+        private final double termWeight;
+        private int index;
+
+        Cursor(Postings postings, double termWeight) {
+            this.postings = postings;
+            this.termWeight = termWeight;
+        }
+
+        long id() {
+            return postings.id(index);
+        }
+
+        double score() {
+            return postings.weight(index) * termWeight;
+        }
+
+        boolean advance() {
+            return ++index < postings.size();
+        }
+    }
+}
@@ -2,11 +2,12 @@ package com.todo.service.security;
 
 import com.todo.service.entity.User;
 import com.todo.service.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,14 +19,28 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Map;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class JwtRequestFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserRepository userRepository;
+    private final VerifiedPrincipalCache principalCache;
+    private final Map<String, Counter> verifyFailures;
+
+    public JwtRequestFilter(JwtUtil jwtUtil, UserRepository userRepository, VerifiedPrincipalCache principalCache,
+                            MeterRegistry meterRegistry) {
+        this.jwtUtil = jwtUtil;
+        this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.verifyFailures = Map.of(
+                TokenVerification.MALFORMED, verifyFailureCounter(meterRegistry, TokenVerification.MALFORMED),
+                TokenVerification.SIGNATURE, verifyFailureCounter(meterRegistry, TokenVerification.SIGNATURE),
+                TokenVerification.EXPIRED, verifyFailureCounter(meterRegistry, TokenVerification.EXPIRED),
+                TokenVerification.PREMATURE, verifyFailureCounter(meterRegistry, TokenVerification.PREMATURE));
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
@@ -41,33 +56,19 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             
             final String requestTokenHeader = request.getHeader("Authorization");
             
-            String username = null;
-            String jwtToken = null;
-            
             // JWT Token is in the form "Bearer token". Remove Bearer word and get only the Token
-            if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
-                jwtToken = requestTokenHeader.substring(7);
-                try {
-                    username = jwtUtil.extractUsername(jwtToken);
-                } catch (Exception e) {
-                    log.error("Unable to get JWT Token: {}", e.getMessage());
-                }
-            }
-            
-            // Once we get the token validate it.
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")
+                    && SecurityContextHolder.getContext().getAuthentication() == null) {
+                String jwtToken = requestTokenHeader.substring(7);
                 
-                // Find user in database
-                User user = userRepository.findByUsername(username).orElse(null);
+                // Tokens seen before skip signature verification and the user lookup entirely. A cached
+                // principal is never re-checked here; a user disabled since is dropped by PrincipalChangedEvent
+                UserDetails userDetails = principalCache.get(jwtToken);
+                if (userDetails == null) {
+                    userDetails = loadVerifiedPrincipal(jwtToken);
+                }
                 
-                if (user != null && jwtUtil.validateToken(jwtToken)) {
-                    // Create UserDetails object
-                    UserDetails userDetails = org.springframework.security.core.userdetails.User.builder()
-                        .username(user.getUsername())
-                        .password(user.getPassword())
-                        .authorities(new ArrayList<>()) // No roles for now
-                        .build();
-                    
+                if (userDetails != null) {
                     UsernamePasswordAuthenticationToken authToken = 
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -83,4 +84,34 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         
         chain.doFilter(request, response);
     }
+
+    private UserDetails loadVerifiedPrincipal(String jwtToken) {
+        // One parse covers signature, expiry and the subject
+        TokenVerification verification = jwtUtil.verify(jwtToken);
+        if (!verification.isValid()) {
+            verifyFailures.get(verification.getReason()).increment();
+            log.error("Unable to verify JWT Token: {}", verification.getFailure());
+            return null;
+        }
+        
+        // Find user in database
+        long loadStarted = System.nanoTime();
+        User user = userRepository.findByUsername(verification.getSubject()).orElse(null);
+        if (user == null || !user.isEnabled()) {
+            return null;
+        }
+        
+        UserDetails userDetails = org.springframework.security.core.userdetails.User.builder()
+            .username(user.getUsername())
+            .password(user.getPassword())
+            .disabled(!user.isEnabled())
+            .authorities(new ArrayList<>()) // No roles for now
+            .build();
+        principalCache.put(jwtToken, userDetails, verification.getExpiration(), loadStarted);
+        return userDetails;
+    }
+
+    private static Counter verifyFailureCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("jwt.verify.failures").tag("reason", reason).register(meterRegistry);
+    }
 }
@@ -1,30 +1,50 @@
 package com.todo.service.security;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.Mac;
 import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Function;
 
 @Component
 @Slf4j
 public class JwtUtil {
 
-    @Value("${jwt.expiration:86400000}") // 24 hours in milliseconds
-    private Long expiration;
-
-    @Value("${jwt.secret:myVeryLongSecretKeyForJWTTokenGenerationThatIsAtLeast256BitsLong}")
-    private String secret;
-
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    // Base64url of {"alg":"HS256"}, the only header createToken ever writes
+    private static final String HS256_HEADER = "eyJhbGciOiJIUzI1NiJ9";
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final Long expiration;
+    private final SecretKey signingKey;
+    // Parsers built by JwtParserBuilder are immutable and thread-safe
+    private final JwtParser parser;
+    // Reused across calls; a ThreadLocal would build a new Mac per request once request threads are virtual.
+    // doFinal never blocks, so the pool stays as small as the number of threads verifying at once
+    private final ConcurrentLinkedQueue<Mac> macs = new ConcurrentLinkedQueue<>();
+
+    public JwtUtil(@Value("${jwt.secret:myVeryLongSecretKeyForJWTTokenGenerationThatIsAtLeast256BitsLong}") String secret,
+                   @Value("${jwt.expiration:86400000}") Long expiration) { // 24 hours in milliseconds
+        this.expiration = expiration;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
     }
 
     public String extractUsername(String token) {
@@ -41,15 +61,7 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -68,25 +80,118 @@ public class JwtUtil {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        TokenVerification verification = verify(token);
+        return verification.isValid() && verification.getSubject().equals(userDetails.getUsername());
     }
 
     public Boolean validateToken(String token) {
+        TokenVerification verification = verify(token);
+        if (!verification.isValid()) {
+            log.error("JWT validation error: {}", verification.getFailure());
+        }
+        return verification.isValid();
+    }
+
+    /**
+     * Verifies signature and expiry in a single pass and returns the subject and expiry.
+     * Tokens in the shape this class issues (HS256 header, sub/iat/exp) are checked with a reused
+     * pooled Mac and a streaming read of the payload; anything else goes through the jjwt parser.
+     */
+    public TokenVerification verify(String token) {
+        if (token == null) {
+            return TokenVerification.invalid(TokenVerification.MALFORMED, "Token is null");
+        }
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = token.indexOf('.', headerEnd + 1);
+        if (headerEnd < 0 || payloadEnd < 0 || token.indexOf('.', payloadEnd + 1) >= 0) {
+            return TokenVerification.invalid(TokenVerification.MALFORMED, "Malformed token");
+        }
+        if (!token.startsWith(HS256_HEADER) || headerEnd != HS256_HEADER.length()) {
+            return verifyWithParser(token);
+        }
+
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token);
-            return !isTokenExpired(token);
+            Mac mac = macs.poll();
+            if (mac == null) {
+                mac = newMac();
+            }
+            byte[] expected;
+            try {
+                expected = mac.doFinal(token.substring(0, payloadEnd).getBytes(StandardCharsets.US_ASCII));
+            } finally {
+                macs.offer(mac);
+            }
+            byte[] actual = Base64.getUrlDecoder().decode(token.substring(payloadEnd + 1));
+            if (!MessageDigest.isEqual(expected, actual)) {
+                return TokenVerification.invalid(TokenVerification.SIGNATURE, "Signature mismatch");
+            }
+            byte[] payload = Base64.getUrlDecoder().decode(token.substring(headerEnd + 1, payloadEnd));
+            return readClaims(payload);
+        } catch (IllegalArgumentException | IOException e) {
+            return TokenVerification.invalid(TokenVerification.MALFORMED, e.getMessage());
+        }
+    }
+
+    private TokenVerification verifyWithParser(String token) {
+        try {
+            Claims claims = extractAllClaims(token);
+            return TokenVerification.valid(claims.getSubject(), claims.getExpiration());
+        } catch (ExpiredJwtException e) {
+            return TokenVerification.invalid(TokenVerification.EXPIRED, e.getMessage());
+        } catch (PrematureJwtException e) {
+            return TokenVerification.invalid(TokenVerification.PREMATURE, e.getMessage());
+        } catch (SignatureException e) {
+            return TokenVerification.invalid(TokenVerification.SIGNATURE, e.getMessage());
         } catch (JwtException | IllegalArgumentException e) {
-            log.error("JWT validation error: {}", e.getMessage());
-            return false;
+            return TokenVerification.invalid(TokenVerification.MALFORMED, e.getMessage());
+        }
+    }
+
+    private TokenVerification readClaims(byte[] payload) throws IOException {
+        String subject = null;
+        long expiresAt = -1;
+        long notBefore = -1;
+        try (JsonParser json = JSON_FACTORY.createParser(payload)) {
+            if (json.nextToken() != JsonToken.START_OBJECT) {
+                return TokenVerification.invalid(TokenVerification.MALFORMED, "Payload is not a JSON object");
+            }
+            while (json.nextToken() == JsonToken.FIELD_NAME) {
+                String field = json.getCurrentName();
+                JsonToken value = json.nextToken();
+                switch (field) {
+                    case "sub" -> subject = value == JsonToken.VALUE_STRING ? json.getText() : null;
+                    case "exp" -> expiresAt = value == JsonToken.VALUE_NUMBER_INT ? json.getLongValue() : -1;
+                    case "nbf" -> notBefore = value == JsonToken.VALUE_NUMBER_INT ? json.getLongValue() : -1;
+                    default -> json.skipChildren();
+                }
+            }
+        }
+        if (subject == null || expiresAt < 0) {
+            return TokenVerification.invalid(TokenVerification.MALFORMED, "Missing sub or exp claim");
+        }
+        // Same boundaries as jjwt without clock skew: expired once now > exp, not yet valid while now < nbf
+        long now = System.currentTimeMillis();
+        if (now > expiresAt * 1000) {
+            return TokenVerification.invalid(TokenVerification.EXPIRED, "Token expired");
+        }
+        if (notBefore >= 0 && now < notBefore * 1000) {
+            return TokenVerification.invalid(TokenVerification.PREMATURE, "Token not yet valid");
+        }
+        return TokenVerification.valid(subject, new Date(expiresAt * 1000));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(signingKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
         }
     }
 }
@@ -0,0 +1,181 @@
+package com.todo.service.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The application's {@link PasswordEncoder}: BCrypt, run on a small pool of its own so that a login storm
+ * uses at most {@code app.password-hashing.threads} cores and every other endpoint keeps the rest.
+ * <p>
+ * Callers block until their hash is done. When the queue is full, or a hash waited in it longer than
+ * {@code max-queue-wait-ms}, the call fails fast with {@link PasswordHashingRejectedException} instead of
+ * adding to the backlog. Unless {@code cost} is set, the BCrypt cost is calibrated at startup to the highest
+ * one that hashes within {@code target-ms} on this machine. Nodes can calibrate differently, so pin
+ * {@code cost} when more than one runs. {@link #upgradeEncoding} reports hashes of a lower cost so they can
+ * be redone on the user's next login; stronger ones are kept.
+ */
+@Component
+@Slf4j
+public class PasswordHasher implements PasswordEncoder {
+
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    private final BCryptPasswordEncoder encoder;
+    private final int cost;
+    private final ThreadPoolExecutor executor;
+    private final long maxQueueWaitNanos;
+
+    private final Timer encodes;
+    private final Timer matches;
+    private final Timer queueWait;
+    private final Counter rejectedFull;
+    private final Counter rejectedTimeout;
+
+    public PasswordHasher(MeterRegistry meterRegistry,
+                          @Value("${app.password-hashing.cost:0}") int cost,
+                          @Value("${app.password-hashing.target-ms:100}") long targetMillis,
+                          @Value("${app.password-hashing.min-cost:10}") int minCost,
+                          @Value("${app.password-hashing.max-cost:14}") int maxCost,
+                          @Value("${app.password-hashing.threads:0}") int threads,
+                          @Value("${app.password-hashing.queue-capacity:64}") int queueCapacity,
+                          @Value("${app.password-hashing.max-queue-wait-ms:2000}") long maxQueueWaitMillis) {
+        this.cost = cost > 0 ? cost : calibrate(TimeUnit.MILLISECONDS.toNanos(targetMillis), minCost, maxCost);
+        this.encoder = new BCryptPasswordEncoder(this.cost);
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMillis);
+
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        log.info("Password hashing: BCrypt cost {}{}, {} thread(s), queue of {}", this.cost,
+                cost > 0 ? "" : " (calibrated to " + targetMillis + " ms)", poolSize, queueCapacity);
+        if (cost <= 0) {
+            log.warn("BCrypt cost calibrated to {} on this node; set PASSWORD_HASH_COST={} when running more than "
+                    + "one node so all of them hash at the same cost", this.cost, this.cost);
+        }
+
+        this.encodes = Timer.builder("password.hash").tag("operation", "encode").register(meterRegistry);
+        this.matches = Timer.builder("password.hash").tag("operation", "matches").register(meterRegistry);
+        this.queueWait = Timer.builder("password.hash.queue.wait").register(meterRegistry);
+        this.rejectedFull = Counter.builder("password.hash.rejected").tag("reason", "queue-full").register(meterRegistry);
+        this.rejectedTimeout = Counter.builder("password.hash.rejected").tag("reason", "queue-timeout").register(meterRegistry);
+        Gauge.builder("password.hash.queue.depth", executor.getQueue(), BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("password.hash.cost", this, PasswordHasher::getCost).register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(encodes, () -> encoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+        return run(matches, () -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    // Only weaker hashes: redoing a stronger one would downgrade it, and nodes of different costs would
+    // otherwise rehash each other's hashes on every login
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int encodedCost = costOf(encodedPassword);
+        return encodedCost > 0 && encodedCost < cost;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Timer timer, Supplier<T> hash) {
+        long queuedAt = System.nanoTime();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                long waited = System.nanoTime() - queuedAt;
+                queueWait.record(waited, TimeUnit.NANOSECONDS);
+                if (waited > maxQueueWaitNanos) {
+                    rejectedTimeout.increment();
+                    throw new PasswordHashingRejectedException("Password hashing is overloaded, try again shortly");
+                }
+                return timer.record(hash);
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedFull.increment();
+            throw new PasswordHashingRejectedException("Password hashing is overloaded, try again shortly");
+        }
+
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("Interrupted while waiting for a password hash");
+        }
+    }
+
+    // Each cost step doubles the work, so time the cheapest allowed cost and step up while it stays under target
+    private static int calibrate(long targetNanos, int minCost, int maxCost) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minCost);
+        probe.encode(CALIBRATION_PASSWORD);
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            probe.encode(CALIBRATION_PASSWORD);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        int cost = minCost;
+        long estimate = fastest;
+        while (cost < maxCost && estimate * 2 <= targetNanos) {
+            cost++;
+            estimate *= 2;
+        }
+        return cost;
+    }
+
+    // "$2a$10$..." has the cost in the two digits after the second '$'; anything else is not ours to judge
+    private static int costOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$'
+                || encodedPassword.charAt(3) != '$' || encodedPassword.charAt(6) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encodedPassword, 4, 6, 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
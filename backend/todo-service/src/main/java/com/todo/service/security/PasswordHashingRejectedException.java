@@ -0,0 +1,12 @@
+package com.todo.service.security;
+
+/**
+ * A password hash was refused because the hashing pool is saturated: the queue was full or the request
+ * waited longer than {@code app.password-hashing.max-queue-wait-ms}. Nothing was hashed; the client may retry.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
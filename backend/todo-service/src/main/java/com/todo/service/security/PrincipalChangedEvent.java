@@ -0,0 +1,8 @@
+package com.todo.service.security;
+
+/**
+ * Published when a user's password or enabled flag changes; that user's cached principals are dropped
+ * once the transaction commits.
+ */
+public record PrincipalChangedEvent(String username) {
+}
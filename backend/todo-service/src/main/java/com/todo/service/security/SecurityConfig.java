@@ -1,20 +1,25 @@
 package com.todo.service.security;
 
+import com.todo.service.ratelimit.AuthRateLimitFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
+import java.util.List;
 
 @Configuration
 @EnableWebSecurity
@@ -23,11 +28,10 @@ public class SecurityConfig {
 
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private final JwtRequestFilter jwtRequestFilter;
+    private final AuthRateLimitFilter authRateLimitFilter;
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
+    @Value("${app.metrics.allowed-ips:127.0.0.1/32,::1/128}")
+    private List<String> metricsAllowedIps;
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
@@ -38,15 +42,25 @@ public class SecurityConfig {
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/todos/**").permitAll() // Temporarily allow todos without auth
                 .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/prometheus").access(fromMetricsScraper())
                 .requestMatchers("/error").permitAll()
                 .anyRequest().authenticated()
             );
 
         http.addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class);
+        // Rejects floods of auth requests before any of the filters or controllers behind it do work
+        http.addFilterBefore(authRateLimitFilter, JwtRequestFilter.class);
 
         return http.build();
     }
 
+    // Scrapers carry no token, so the Prometheus endpoint is limited to their addresses instead
+    private AuthorizationManager<RequestAuthorizationContext> fromMetricsScraper() {
+        List<IpAddressMatcher> allowed = metricsAllowedIps.stream().map(String::strip).map(IpAddressMatcher::new).toList();
+        return (authentication, context) -> new AuthorizationDecision(
+            allowed.stream().anyMatch(matcher -> matcher.matches(context.getRequest())));
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
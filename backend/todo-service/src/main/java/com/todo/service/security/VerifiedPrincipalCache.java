@@ -0,0 +1,148 @@
+package com.todo.service.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Principals whose JWT has already been verified and whose user row has already been loaded,
+ * keyed by a SHA-256 of the raw token and kept until the token's own expiry. Only enabled users are
+ * cached, and a principal loaded before its user's last invalidation is never stored. Cached principals
+ * are served as they were loaded, so any change that disables an account or revokes its credentials must
+ * publish a {@link PrincipalChangedEvent}.
+ */
+@Component
+@Slf4j
+public class VerifiedPrincipalCache {
+
+    // How long an invalidation keeps rejecting principals whose load started before it
+    private static final long INVALIDATION_MARKER_NANOS = TimeUnit.MINUTES.toNanos(1);
+    // Share of max-size freed at once when full, so the scan is paid once per that many puts
+    private static final int EVICTION_BATCH_DIVISOR = 10;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> invalidatedAt = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public VerifiedPrincipalCache(@Value("${jwt.principal-cache.max-size:10000}") int maxSize,
+                                  MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.hits = Counter.builder("jwt.principal.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("jwt.principal.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("jwt.principal.cache.evictions").register(meterRegistry);
+        Gauge.builder("jwt.principal.cache.size", entries, ConcurrentHashMap::size).register(meterRegistry);
+    }
+
+    public UserDetails get(String token) {
+        String key = hash(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAtMillis() <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.principal();
+    }
+
+    /**
+     * @param loadStartedNanos {@link System#nanoTime()} taken before the user row was read, so a row read
+     *                         ahead of a concurrent password reset cannot outlive that reset's invalidation
+     */
+    public void put(String token, UserDetails principal, Date expiresAt, long loadStartedNanos) {
+        if (maxSize <= 0 || !principal.isEnabled()) {
+            return;
+        }
+        Long invalidated = invalidatedAt.get(principal.getUsername());
+        if (invalidated != null && loadStartedNanos - invalidated <= 0) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            makeRoom();
+        }
+        String key = hash(token);
+        Entry entry = new Entry(principal, expiresAt.getTime());
+        entries.put(key, entry);
+        // An invalidation may have landed between the check above and the put
+        Long latest = invalidatedAt.get(principal.getUsername());
+        if (latest != null && loadStartedNanos - latest <= 0) {
+            entries.remove(key, entry);
+        }
+    }
+
+    // Runs after the password reset or activation has committed, so no request can still read the old row
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPrincipalChanged(PrincipalChangedEvent event) {
+        invalidateUser(event.username());
+    }
+
+    // Drops every cached token of this user, e.g. after a password reset or a change to the account's status
+    public void invalidateUser(String username) {
+        invalidatedAt.put(username, System.nanoTime());
+        int before = entries.size();
+        entries.values().removeIf(entry -> entry.principal().getUsername().equals(username));
+        log.debug("Invalidated {} cached principal(s) for user: {}", before - entries.size(), username);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.principal-cache.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+        long nowNanos = System.nanoTime();
+        invalidatedAt.values().removeIf(at -> nowNanos - at > INVALIDATION_MARKER_NANOS);
+    }
+
+    private synchronized void makeRoom() {
+        // Another thread may have made room while this one waited
+        if (entries.size() < maxSize) {
+            return;
+        }
+        evictExpired();
+        // Still over the mark: drop arbitrary entries, those users just pay one extra lookup on their next request
+        int target = maxSize - Math.max(1, maxSize / EVICTION_BATCH_DIVISOR);
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+            evictions.increment();
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Entry(UserDetails principal, long expiresAtMillis) {
+    }
+}
@@ -1,13 +1,18 @@
 package com.todo.service.service;
 
+import com.todo.service.availability.UserAvailabilityIndex;
 import com.todo.service.dto.AuthResponse;
+import com.todo.service.dto.AvailabilityResponse;
 import com.todo.service.dto.LoginRequest;
 import com.todo.service.dto.RegisterRequest;
 import com.todo.service.entity.User;
 import com.todo.service.repository.UserRepository;
 import com.todo.service.security.JwtUtil;
+import com.todo.service.security.PasswordHashingRejectedException;
+import com.todo.service.security.PrincipalChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -19,8 +24,23 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserAvailabilityIndex availabilityIndex;
+
+    /**
+     * Hashes on the bounded pool and may throw {@link PasswordHashingRejectedException}. Callers that consume
+     * a single-use code hash first, so a rejected hash leaves the code valid for the retry.
+     */
+    public String hashPassword(String rawPassword) {
+        return passwordEncoder.encode(rawPassword);
+    }
 
     public AuthResponse register(RegisterRequest request) {
+        return register(request, null);
+    }
+
+    // passwordHash from hashPassword, or null to hash request's password here
+    public AuthResponse register(RegisterRequest request, String passwordHash) {
         log.info("=== STARTING USER REGISTRATION ===");
         log.info("Registering new user: {}", request.getUsername());
         log.info("Email: {}", request.getEmail());
@@ -54,7 +74,7 @@ public class AuthService {
             user.setEmail(request.getEmail());
             
             log.info("Encoding password...");
-            String encodedPassword = passwordEncoder.encode(request.getPassword());
+            String encodedPassword = passwordHash != null ? passwordHash : passwordEncoder.encode(request.getPassword());
             user.setPassword(encodedPassword);
             log.info("Password encoded successfully");
             
@@ -68,6 +88,7 @@ public class AuthService {
 
             User savedUser = userRepository.save(user);
             log.info("User saved successfully with ID: {}", savedUser.getId());
+            availabilityIndex.add(savedUser.getUsername(), savedUser.getEmail());
             
             // Generate JWT token
             log.info("Generating JWT token...");
@@ -113,6 +134,12 @@ public class AuthService {
             throw new RuntimeException("User account is disabled!");
         }
         
+        // Hashes made at a lower cost than the current one are redone while the plain password is at hand;
+        // stronger ones are kept
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            rehash(user, request.getPassword());
+        }
+        
         // Generate JWT token
         String token = jwtUtil.generateToken(user.getUsername());
         
@@ -128,24 +155,50 @@ public class AuthService {
         );
     }
 
+    private void rehash(User user, String rawPassword) {
+        try {
+            String upgraded = passwordEncoder.encode(rawPassword);
+            if (userRepository.replacePassword(user.getId(), user.getPassword(), upgraded) == 1) {
+                log.info("Rehashed password of user {} at the current cost", user.getUsername());
+            }
+        } catch (PasswordHashingRejectedException e) {
+            // The login itself succeeded; the rehash is retried on a later one
+            log.debug("Skipped rehash for user {}: {}", user.getUsername(), e.getMessage());
+        }
+    }
+
+    // Cheap enough to call on every keystroke: most free handles are answered without a query
+    public AvailabilityResponse checkAvailability(String username, String email) {
+        Boolean usernameAvailable = username == null || username.isBlank()
+            ? null : !availabilityIndex.isUsernameTaken(username.strip());
+        Boolean emailAvailable = email == null || email.isBlank()
+            ? null : !availabilityIndex.isEmailTaken(email.strip());
+        return new AvailabilityResponse(usernameAvailable, emailAvailable);
+    }
+
     public User getCurrentUser(String username) {
         return userRepository.findByUsername(username)
             .orElseThrow(() -> new RuntimeException("User not found!"));
     }
 
     public void resetPassword(String email, String newPassword) {
+        resetPasswordHash(email, hashPassword(newPassword));
+    }
+
+    public void resetPasswordHash(String email, String passwordHash) {
         log.info("Resetting password for email: {}", email);
         
         User user = userRepository.findByEmail(email)
             .orElseThrow(() -> new RuntimeException("User not found!"));
         
-        String encodedPassword = passwordEncoder.encode(newPassword);
-        user.setPassword(encodedPassword);
+        user.setPassword(passwordHash);
         
         // Enable the user account after password reset
         user.setEnabled(true);
         
         userRepository.save(user);
+        // Tokens issued before the reset must be verified against the new account state
+        eventPublisher.publishEvent(new PrincipalChangedEvent(user.getUsername()));
         log.info("Password reset successfully for user: {} and account enabled", user.getUsername());
     }
 }
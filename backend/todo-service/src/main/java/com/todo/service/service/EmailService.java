@@ -1,161 +1,69 @@
 package com.todo.service.service;
 
+import com.todo.service.email.EmailDispatcher;
+import com.todo.service.email.EmailMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Builds the app's emails and queues them on the {@link EmailDispatcher}; none of these methods
+ * wait for the provider.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailService {
 
-    private final JavaMailSender mailSender;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final EmailDispatcher emailDispatcher;
 
     @Value("${app.email.from}")
     private String fromEmail;
-    
-    @Value("${resend.api.key}")
-    private String resendApiKey;
 
-    // This method is kept for backward compatibility but now uses REST API
+    // This method is kept for backward compatibility
     public void sendVerificationEmail(String to, String username, String verificationCode) {
         sendVerificationEmailAsync(to, username, verificationCode);
     }
 
-    @Async
     public void sendVerificationEmailAsync(String to, String username, String verificationCode) {
-        try {
-            // Use Resend REST API instead of SMTP
-            String url = "https://api.resend.com/emails";
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Authorization", "Bearer " + resendApiKey);
-            
-            String emailBody = buildVerificationEmailBody(username, verificationCode);
-            
-            // Clean up the email body for JSON - remove newlines and escape quotes properly
-            String cleanEmailBody = emailBody
-                .replace("\n", "\\n")
-                .replace("\"", "\\\"")
-                .replace("\r", "");
-            
-            String requestBody = String.format("""
-                {
-                    "from": "%s",
-                    "to": ["%s"],
-                    "subject": "Verify Your Email - Todo App",
-                    "text": "%s"
-                }
-                """, fromEmail, to, cleanEmailBody);
-            
-            HttpEntity<String> request = new HttpEntity<>(requestBody, headers);
-            
-            ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class);
-            
-            if (response.getStatusCode().is2xxSuccessful()) {
+        EmailMessage message = new EmailMessage(fromEmail, to, "Verify Your Email - Todo App",
+                buildVerificationEmailBody(username, verificationCode), "verification");
+        emailDispatcher.submit(message).whenComplete((ignored, e) -> {
+            if (e == null) {
                 log.info("Verification email sent successfully via Resend API to: {}", to);
             } else {
-                log.error("Failed to send email via Resend API. Status: {}, Response: {}", 
-                    response.getStatusCode(), response.getBody());
+                // Don't throw, the user can still ask for a new code
+                log.error("Failed to send verification email to: {}", to, e);
             }
-        } catch (Exception e) {
-            log.error("Failed to send verification email to: {}", to, e);
-            // Don't throw exception in async method, just log it
-        }
+        });
     }
 
+    // Throws only when the email could not even be queued; later delivery failures are logged
     public void sendPasswordResetEmail(String to, String username, String resetCode) {
-        try {
-            // Use Resend REST API instead of SMTP
-            String url = "https://api.resend.com/emails";
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Authorization", "Bearer " + resendApiKey);
-            
-            String emailBody = buildPasswordResetEmailBody(username, resetCode);
-            
-            // Clean up the email body for JSON
-            String cleanEmailBody = emailBody
-                .replace("\n", "\\n")
-                .replace("\"", "\\\"")
-                .replace("\r", "");
-            
-            String requestBody = String.format("""
-                {
-                    "from": "%s",
-                    "to": ["%s"],
-                    "subject": "Password Reset - Todo App",
-                    "text": "%s"
-                }
-                """, fromEmail, to, cleanEmailBody);
-            
-            HttpEntity<String> request = new HttpEntity<>(requestBody, headers);
-            
-            ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class);
-            
-            if (response.getStatusCode().is2xxSuccessful()) {
+        EmailMessage message = new EmailMessage(fromEmail, to, "Password Reset - Todo App",
+                buildPasswordResetEmailBody(username, resetCode), "password-reset");
+        CompletableFuture<Void> result = emailDispatcher.submit(message);
+        if (result.isCompletedExceptionally()) {
+            log.error("Failed to queue password reset email to: {}", to);
+            throw new RuntimeException("Failed to send password reset email", result.exceptionNow());
+        }
+        result.whenComplete((ignored, e) -> {
+            if (e == null) {
                 log.info("Password reset email sent successfully via Resend API to: {}", to);
             } else {
-                log.error("Failed to send password reset email via Resend API. Status: {}, Response: {}", 
-                    response.getStatusCode(), response.getBody());
+                log.error("Failed to send password reset email to: {}", to, e);
             }
-        } catch (Exception e) {
-            log.error("Failed to send password reset email to: {}", to, e);
-            throw new RuntimeException("Failed to send password reset email", e);
-        }
+        });
     }
 
-    public void sendTodoReminderEmail(String to, String username, String todoTitle, String dueDateTime) {
-        try {
-            // Use Resend REST API instead of SMTP
-            String url = "https://api.resend.com/emails";
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Authorization", "Bearer " + resendApiKey);
-            
-            String emailBody = buildTodoReminderEmailBody(username, todoTitle, dueDateTime);
-            
-            // Clean up the email body for JSON
-            String cleanEmailBody = emailBody
-                .replace("\n", "\\n")
-                .replace("\"", "\\\"")
-                .replace("\r", "");
-            
-            String requestBody = String.format("""
-                {
-                    "from": "%s",
-                    "to": ["%s"],
-                    "subject": "Todo Reminder - %s",
-                    "text": "%s"
-                }
-                """, fromEmail, to, todoTitle, cleanEmailBody);
-            
-            HttpEntity<String> request = new HttpEntity<>(requestBody, headers);
-            
-            ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class);
-            
-            if (response.getStatusCode().is2xxSuccessful()) {
-                log.info("Todo reminder email sent successfully via Resend API to: {}", to);
-            } else {
-                log.error("Failed to send todo reminder email via Resend API. Status: {}, Response: {}", 
-                    response.getStatusCode(), response.getBody());
-            }
-        } catch (Exception e) {
-            log.error("Failed to send todo reminder email to: {}", to, e);
-            throw new RuntimeException("Failed to send todo reminder email", e);
-        }
+    // Completes exceptionally when the reminder could not be handed to Resend
+    public CompletableFuture<Void> sendTodoReminderEmailAsync(String to, String username, String todoTitle,
+                                                              String dueDateTime) {
+        return emailDispatcher.submit(new EmailMessage(fromEmail, to, "Todo Reminder - " + todoTitle,
+                buildTodoReminderEmailBody(username, todoTitle, dueDateTime), "reminder"));
     }
 
     private String buildVerificationEmailBody(String username, String verificationCode) {
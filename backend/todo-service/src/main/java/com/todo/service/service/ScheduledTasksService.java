@@ -11,16 +11,43 @@ import org.springframework.stereotype.Service;
 public class ScheduledTasksService {
 
     private final VerificationService verificationService;
+    private final TodoStatsService todoStatsService;
+    private final TodoSyncService todoSyncService;
 
     // Run every hour to clean up expired verification codes
     @Scheduled(fixedRate = 3600000)
     public void cleanupExpiredVerificationCodes() {
         log.info("Starting cleanup of expired verification codes...");
         try {
-            verificationService.cleanupExpiredCodes();
-            log.info("Cleanup of expired verification codes completed");
+            int purged = verificationService.cleanupExpiredCodes();
+            log.info("Cleanup of expired verification codes completed, {} removed", purged);
         } catch (Exception e) {
             log.error("Error during cleanup of expired verification codes", e);
         }
     }
+
+    // Recount the per-user todo counters in case a write path ever drifted from the todos table
+    @Scheduled(fixedDelayString = "${app.todo-stats.repair-interval-ms:3600000}",
+               initialDelayString = "${app.todo-stats.repair-initial-delay-ms:600000}")
+    public void repairTodoStats() {
+        log.info("Starting repair of todo counters...");
+        try {
+            int repaired = todoStatsService.repairAll();
+            log.info("Repair of todo counters completed, {} rows corrected", repaired);
+        } catch (Exception e) {
+            log.error("Error during repair of todo counters", e);
+        }
+    }
+
+    // Drop delta sync tombstones past retention; tokens older than that are refused anyway
+    @Scheduled(fixedDelayString = "${app.todo-sync.purge-interval-ms:3600000}")
+    public void purgeTodoTombstones() {
+        log.info("Starting purge of todo tombstones...");
+        try {
+            int purged = todoSyncService.purgeTombstones();
+            log.info("Purge of todo tombstones completed, {} removed", purged);
+        } catch (Exception e) {
+            log.error("Error during purge of todo tombstones", e);
+        }
+    }
 }
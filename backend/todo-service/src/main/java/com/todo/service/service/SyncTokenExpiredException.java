@@ -0,0 +1,12 @@
+package com.todo.service.service;
+
+/**
+ * The tombstones a sync token depends on may already be purged. The client has to drop its copy and sync
+ * again without a token.
+ */
+public class SyncTokenExpiredException extends RuntimeException {
+
+    public SyncTokenExpiredException(String message) {
+        super(message);
+    }
+}
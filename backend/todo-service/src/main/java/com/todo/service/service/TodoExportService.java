@@ -0,0 +1,76 @@
+package com.todo.service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.todo.service.entity.Todo;
+import com.todo.service.repository.TodoRepository;
+import com.todo.service.transfer.TodoCsv;
+import com.todo.service.transfer.TodoFormat;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's todos, newest first, straight to an output stream. Rows come from a database cursor
+ * and are detached as soon as they are written, so memory use stays flat however many todos there are.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TodoExportService {
+
+    private final TodoRepository todoRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    // The cursor only lives as long as the transaction, so the whole export runs inside one
+    @Transactional(readOnly = true)
+    public long export(String userId, TodoFormat format, OutputStream out) throws IOException {
+        log.info("Exporting todos for user: {} as {}", userId, format);
+        try (Stream<Todo> todos = todoRepository.streamByUserId(userId)) {
+            long rows = format == TodoFormat.CSV ? writeCsv(todos.iterator(), out) : writeNdjson(todos.iterator(), out);
+            log.info("Exported {} todos for user: {}", rows, userId);
+            return rows;
+        }
+    }
+
+    private long writeNdjson(Iterator<Todo> todos, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(Todo.class);
+        long rows = 0;
+        while (todos.hasNext()) {
+            Todo todo = todos.next();
+            out.write(writer.writeValueAsBytes(todo));
+            out.write('\n');
+            entityManager.detach(todo);
+            rows++;
+        }
+        out.flush();
+        return rows;
+    }
+
+    private long writeCsv(Iterator<Todo> todos, OutputStream out) throws IOException {
+        // Flushed but not closed: the stream belongs to the caller
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        TodoCsv.writeHeader(writer);
+        long rows = 0;
+        while (todos.hasNext()) {
+            Todo todo = todos.next();
+            TodoCsv.writeRow(writer, todo);
+            entityManager.detach(todo);
+            rows++;
+        }
+        writer.flush();
+        return rows;
+    }
+}
@@ -0,0 +1,218 @@
+package com.todo.service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.todo.service.cache.TodosChangedEvent;
+import com.todo.service.dto.TodoImportError;
+import com.todo.service.dto.TodoImportResponse;
+import com.todo.service.entity.Todo;
+import com.todo.service.repository.TodoRepository;
+import com.todo.service.search.TodoTextChangedEvent;
+import com.todo.service.stream.TodoStreamEvent;
+import com.todo.service.transfer.TodoCsv;
+import com.todo.service.transfer.TodoFormat;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports todos from an NDJSON or CSV stream, parsing one row at a time. Each row is checked against the
+ * {@link Todo} constraints; valid rows are inserted in chunks of {@code chunk-size}, each chunk in its own
+ * transaction with JDBC-batched inserts. Memory use is bounded by the chunk size and the error limit, not
+ * by the size of the input. A chunk the database rejects is reported row by row and the import goes on,
+ * so the chunks before it stay committed.
+ */
+@Service
+@Slf4j
+public class TodoImportService {
+
+    private final TodoRepository todoRepository;
+    private final TodoStatsService todoStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    public TodoImportService(TodoRepository todoRepository,
+                             TodoStatsService todoStatsService,
+                             TransactionTemplate transactionTemplate,
+                             ApplicationEventPublisher eventPublisher,
+                             EntityManager entityManager,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             @Value("${app.todo-import.chunk-size:1000}") int chunkSize,
+                             @Value("${app.todo-import.max-errors:1000}") int maxErrors) {
+        this.todoRepository = todoRepository;
+        this.todoStatsService = todoStatsService;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    public TodoImportResponse importTodos(String userId, TodoFormat format, InputStream in) throws IOException {
+        log.info("Importing todos for user: {} as {}", userId, format);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Chunk chunk = new Chunk(userId);
+        if (format == TodoFormat.CSV) {
+            readCsv(reader, chunk);
+        } else {
+            readNdjson(reader, chunk);
+        }
+        chunk.flush();
+        log.info("Imported {} todos for user: {}, {} rows failed", chunk.imported, userId, chunk.failed);
+        return new TodoImportResponse(chunk.imported, chunk.failed, chunk.errors);
+    }
+
+    private void readNdjson(BufferedReader reader, Chunk chunk) throws IOException {
+        ObjectReader rowReader = objectMapper.readerFor(Todo.class);
+        long row = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            row++;
+            Todo todo;
+            try {
+                todo = rowReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                chunk.reject(row, "Invalid JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            if (todo == null) {
+                chunk.reject(row, "Expected a JSON object");
+                continue;
+            }
+            chunk.add(row, todo);
+        }
+    }
+
+    private void readCsv(BufferedReader reader, Chunk chunk) throws IOException {
+        List<String> header = TodoCsv.readRecord(reader);
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = TodoCsv.columns(header);
+        long row = 0;
+        List<String> record;
+        while ((record = TodoCsv.readRecord(reader)) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            row++;
+            Todo todo;
+            try {
+                todo = TodoCsv.readTodo(record, columns);
+            } catch (IllegalArgumentException e) {
+                chunk.reject(row, e.getMessage());
+                continue;
+            }
+            chunk.add(row, todo);
+        }
+    }
+
+    // The rows waiting for the next insert, plus the running totals of the import
+    private final class Chunk {
+
+        private final String userId;
+        private final List<Todo> todos = new ArrayList<>();
+        private final List<Long> rows = new ArrayList<>();
+        private final List<TodoImportError> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+
+        Chunk(String userId) {
+            this.userId = userId;
+        }
+
+        void add(long row, Todo todo) {
+            Set<ConstraintViolation<Todo>> violations = validator.validate(todo);
+            if (!violations.isEmpty()) {
+                reject(row, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            todo.setId(null);
+            todo.setUserId(userId);
+            if (todo.getPriority() == null) {
+                todo.setPriority(Todo.Priority.MEDIUM);
+            }
+            todo.setCreatedAt(now);
+            todo.setUpdatedAt(now);
+            todo.setRemindedAt(null);
+            todos.add(todo);
+            rows.add(row);
+            if (todos.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(long row, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new TodoImportError(row, message));
+            }
+        }
+
+        void flush() {
+            if (todos.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<Todo> saved = todoRepository.saveAll(todos);
+                    TodoStatsDelta delta = saved.stream()
+                            .map(TodoStatsDelta::created)
+                            .reduce(TodoStatsDelta::plus)
+                            .orElseThrow();
+                    long changeSeq = todoStatsService.apply(userId, delta);
+                    saved.forEach(todo -> todo.setChangeSeq(changeSeq));
+                    // The request may hold one persistence context open for its whole length; empty it per chunk
+                    todoRepository.flush();
+                    entityManager.clear();
+                    eventPublisher.publishEvent(new TodosChangedEvent(userId));
+                    eventPublisher.publishEvent(TodoTextChangedEvent.indexed(userId, saved));
+                    eventPublisher.publishEvent(TodoStreamEvent.changed(userId, changeSeq));
+                });
+                imported += todos.size();
+            } catch (DataAccessException e) {
+                log.warn("Import chunk of {} todos failed for user: {}", todos.size(), userId, e);
+                String message = "Not saved: " + e.getMostSpecificCause().getMessage();
+                for (Long row : rows) {
+                    reject(row, message);
+                }
+            }
+            todos.clear();
+            rows.clear();
+        }
+    }
+}
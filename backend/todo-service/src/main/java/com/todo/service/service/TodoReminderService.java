@@ -1,92 +1,166 @@
 package com.todo.service.service;
 
+import com.todo.service.dto.TodoReminder;
 import com.todo.service.entity.Todo;
-import com.todo.service.entity.User;
 import com.todo.service.repository.TodoRepository;
-import com.todo.service.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * Sends one reminder per pending todo once it is due within {@code app.email.reminder.hours-before}.
+ * <p>
+ * Each chunk is claimed by setting {@code reminded_at} in a short transaction of its own, then sent
+ * outside any transaction; only the rows whose {@code reminded_at} this run set are sent. Failed sends release their claim so the next run retries them; a crash
+ * between claim and send loses that chunk's reminders rather than sending them twice.
+ * <p>
+ * Each run is timed as {@code todo.reminder.run}, each claimed chunk's size recorded in
+ * {@code todo.reminder.batch.size}, and the reminders counted in {@code todo.reminder.sends} by outcome.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class TodoReminderService {
 
+    static final int CHUNK_SIZE = 500;
+
+    private static final DateTimeFormatter DUE_DATE_FORMAT = DateTimeFormatter.ofPattern("MMM dd, yyyy 'at' h:mm a");
+
     private final TodoRepository todoRepository;
-    private final UserRepository userRepository;
     private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer runTimer;
+    private final DistributionSummary batchSize;
+    private final Counter sentReminders;
+    private final Counter failedReminders;
 
     @Value("${app.email.reminder.hours-before:24}")
     private int hoursBeforeReminder;
 
-    @Scheduled(fixedRate = 300000) // Run every 5 minutes
-    @Transactional
+    public TodoReminderService(TodoRepository todoRepository, EmailService emailService,
+                               TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.todoRepository = todoRepository;
+        this.emailService = emailService;
+        this.transactionTemplate = transactionTemplate;
+        this.runTimer = Timer.builder("todo.reminder.run").register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("todo.reminder.batch.size")
+                .maximumExpectedValue((double) CHUNK_SIZE).register(meterRegistry);
+        this.sentReminders = Counter.builder("todo.reminder.sends").tag("outcome", "sent").register(meterRegistry);
+        this.failedReminders = Counter.builder("todo.reminder.sends").tag("outcome", "failed").register(meterRegistry);
+    }
+
+    // fixedDelay: a slow run delays the next one instead of overlapping it
+    @Scheduled(fixedDelayString = "${app.email.reminder.poll-interval-ms:60000}")
     public void sendTodoReminders() {
         log.info("Starting todo reminder check...");
-        
-        LocalDateTime reminderTime = LocalDateTime.now().plusHours(hoursBeforeReminder);
-        LocalDateTime reminderTimeEnd = reminderTime.plusMinutes(5); // 5-minute window
-        
-        // Find todos that are due within the reminder window
-        List<Todo> todosToRemind = todoRepository.findTodosDueBetween(
-            reminderTime, 
-            reminderTimeEnd
-        );
-        
-        log.info("Found {} todos to remind", todosToRemind.size());
-        
-        for (Todo todo : todosToRemind) {
-            try {
-                sendReminderForTodo(todo);
-            } catch (Exception e) {
-                log.error("Failed to send reminder for todo ID: {}", todo.getId(), e);
+        Timer.Sample run = Timer.start();
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizon = now.plusHours(hoursBeforeReminder);
+        // Todos already past due are not reminded; the cursor starts just after "now"
+        LocalDateTime afterDue = now;
+        Long afterId = Long.MAX_VALUE;
+        int sent = 0;
+        int failed = 0;
+
+        while (true) {
+            LocalDateTime claimedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            Chunk chunk = claimChunk(horizon, afterDue, afterId, claimedAt);
+            List<Todo> candidates = chunk.candidates();
+            if (candidates.isEmpty()) {
+                break;
+            }
+            List<Long> claimed = chunk.claimedIds();
+            batchSize.record(claimed.size());
+            Todo last = candidates.get(candidates.size() - 1);
+            afterDue = last.getDueDate();
+            afterId = last.getId();
+
+            List<Long> failures = claimed.isEmpty() ? List.of() : dispatch(claimed);
+            if (!failures.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status ->
+                        todoRepository.releaseReminders(failures, claimedAt));
+            }
+            sent += claimed.size() - failures.size();
+            failed += failures.size();
+            sentReminders.increment(claimed.size() - failures.size());
+            failedReminders.increment(failures.size());
+
+            if (candidates.size() < CHUNK_SIZE) {
+                break;
             }
         }
-        
-        log.info("Completed todo reminder check");
+
+        run.stop(runTimer);
+        log.info("Completed todo reminder check: {} reminders handled, {} failed and will be retried", sent, failed);
     }
 
-    private void sendReminderForTodo(Todo todo) {
-        // Find the user for this todo
-        User user = userRepository.findByUsername(todo.getUserId()).orElse(null);
-        if (user == null) {
-            log.warn("User not found for todo ID: {}", todo.getId());
-            return;
-        }
+    // A candidate another instance claimed between our read and our update is left out of claimedIds, so it
+    // is neither sent twice nor released from under that instance when our send fails
+    private Chunk claimChunk(LocalDateTime horizon, LocalDateTime afterDue, Long afterId, LocalDateTime claimedAt) {
+        return transactionTemplate.execute(status -> {
+            List<Todo> candidates = todoRepository.lockReminderCandidates(horizon, afterDue, afterId,
+                    PageRequest.of(0, CHUNK_SIZE));
+            if (candidates.isEmpty()) {
+                return new Chunk(candidates, List.of());
+            }
+            List<Long> ids = candidates.stream().map(Todo::getId).toList();
+            int updated = todoRepository.claimReminders(ids, claimedAt);
+            if (updated < ids.size()) {
+                log.info("{} of {} reminder candidates were claimed by another run", ids.size() - updated, ids.size());
+                ids = todoRepository.findClaimedIds(ids, claimedAt);
+            }
+            return new Chunk(candidates, ids);
+        });
+    }
 
-        if (user.getEmail() == null || user.getEmail().trim().isEmpty()) {
-            log.warn("User {} has no email address for reminder", user.getUsername());
-            return;
+    // Queues the whole chunk on the email dispatcher and returns the ids whose send failed
+    private List<Long> dispatch(List<Long> todoIds) {
+        List<CompletableFuture<Long>> sends = new ArrayList<>();
+        for (TodoReminder reminder : todoRepository.findReminders(todoIds)) {
+            if (reminder.getEmail() == null || reminder.getEmail().trim().isEmpty()) {
+                log.warn("No email address for reminder of todo ID: {}", reminder.getTodoId());
+                continue;
+            }
+            sends.add(emailService.sendTodoReminderEmailAsync(
+                            reminder.getEmail(),
+                            reminder.getUsername(),
+                            reminder.getTitle(),
+                            formatDueDateTime(reminder.getDueDate()))
+                    .handle((ignored, e) -> {
+                        if (e == null) {
+                            return null;
+                        }
+                        log.error("Failed to send reminder for todo ID: {}", reminder.getTodoId(), e);
+                        return reminder.getTodoId();
+                    }));
         }
+        CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+        return sends.stream().map(CompletableFuture::join).filter(Objects::nonNull).toList();
+    }
 
-        // Format the due date/time
-        String dueDateTime = formatDueDateTime(todo.getDueDate());
-        
-        // Send the reminder email
-        emailService.sendTodoReminderEmail(
-            user.getEmail(),
-            user.getUsername(),
-            todo.getTitle(),
-            dueDateTime
-        );
-        
-        log.info("Sent reminder for todo '{}' to user '{}'", todo.getTitle(), user.getUsername());
+    // candidates drive the keyset cursor; claimedIds are the ones this run set reminded_at on and may send
+    private record Chunk(List<Todo> candidates, List<Long> claimedIds) {
     }
 
     private String formatDueDateTime(LocalDateTime dueDate) {
         if (dueDate == null) {
             return "No due date";
         }
-        
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd, yyyy 'at' h:mm a");
-        return dueDate.format(formatter);
+        return dueDate.format(DUE_DATE_FORMAT);
     }
 }
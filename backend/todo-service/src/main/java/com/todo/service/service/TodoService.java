@@ -1,37 +1,112 @@
 package com.todo.service.service;
 
+import com.todo.service.cache.TodoCache;
+import com.todo.service.cache.TodosChangedEvent;
+import com.todo.service.dto.CursorPage;
+import com.todo.service.dto.TodoBatchRequest;
+import com.todo.service.dto.TodoBatchResponse;
+import com.todo.service.dto.TodoFilter;
+import com.todo.service.dto.TodoPatch;
+import com.todo.service.dto.TodoSummary;
 import com.todo.service.entity.Todo;
+import com.todo.service.entity.TodoStats;
 import com.todo.service.repository.TodoRepository;
+import com.todo.service.search.TodoSearchIndex;
+import com.todo.service.search.TodoTextChangedEvent;
+import com.todo.service.stream.TodoStreamEvent;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
+@Timed("todo.service")
 public class TodoService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int MAX_BATCH_SIZE = 10_000;
+    private static final int ID_CHUNK_SIZE = 500;
+
     private final TodoRepository todoRepository;
+    private final TodoStatsService todoStatsService;
+    private final TodoSyncService todoSyncService;
+    private final TodoCache todoCache;
+    private final TodoSearchIndex todoSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
+    // The cached reads open no transaction of their own, so a hit never takes a connection
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Todo> getAllTodosByUserId(String userId) {
+        return getAllTodosByUserId(userId, 0);
+    }
+
+    /**
+     * As {@link #getAllTodosByUserId(String)}, but never answers from a cached list older than
+     * {@code minVersion}, typically the version the caller has just put in an ETag.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Todo> getAllTodosByUserId(String userId, long minVersion) {
         log.info("Fetching all todos for user: {}", userId);
-        return todoRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        return cachedTodos(userId, minVersion);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Todo> getTodosByStatus(String userId, boolean completed) {
+        return getTodosByStatus(userId, completed, 0);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Todo> getTodosByStatus(String userId, boolean completed, long minVersion) {
         log.info("Fetching {} todos for user: {}", completed ? "completed" : "pending", userId);
-        return todoRepository.findByUserIdAndCompletedOrderByCreatedAtDesc(userId, completed);
+        List<Todo> cached = cachedTodosIfCacheable(userId, minVersion);
+        if (cached == null) {
+            return todoRepository.findByUserIdAndCompletedOrderByCreatedAtDesc(userId, completed);
+        }
+        return cached.stream()
+                .filter(todo -> todo.isCompleted() == completed)
+                .toList();
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Todo> getTodosByPriority(String userId, Todo.Priority priority) {
+        return getTodosByPriority(userId, priority, 0);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Todo> getTodosByPriority(String userId, Todo.Priority priority, long minVersion) {
         log.info("Fetching todos with priority {} for user: {}", priority, userId);
-        return todoRepository.findByUserIdAndPriorityOrderByCreatedAtDesc(userId, priority);
+        List<Todo> cached = cachedTodosIfCacheable(userId, minVersion);
+        if (cached == null) {
+            return todoRepository.findByUserIdAndPriorityOrderByCreatedAtDesc(userId, priority);
+        }
+        return cached.stream()
+                .filter(todo -> todo.getPriority() == priority)
+                .toList();
     }
 
     public List<Todo> getOverdueTodos(String userId) {
@@ -44,6 +119,80 @@ public class TodoService {
         return todoRepository.findTodosByDateRange(userId, startDate, endDate);
     }
 
+    public CursorPage<Todo> getTodosPage(String userId, Integer limit, String after) {
+        log.info("Fetching todo page for user: {} after: {}", userId, after);
+        TodoCursor cursor = decodeCursor(after);
+        Pageable page = pageRequest(limit);
+        List<Todo> rows = cursor == null
+                ? todoRepository.findFirstPage(userId, page)
+                : todoRepository.findPageAfter(userId, cursor.getSortKey(), cursor.getId(), page);
+        return toPage(rows, page, Todo::getCreatedAt);
+    }
+
+    public CursorPage<Todo> getTodosByStatusPage(String userId, boolean completed, Integer limit, String after) {
+        log.info("Fetching {} todo page for user: {} after: {}", completed ? "completed" : "pending", userId, after);
+        TodoCursor cursor = decodeCursor(after);
+        Pageable page = pageRequest(limit);
+        List<Todo> rows = cursor == null
+                ? todoRepository.findFirstPageByStatus(userId, completed, page)
+                : todoRepository.findPageByStatusAfter(userId, completed, cursor.getSortKey(), cursor.getId(), page);
+        return toPage(rows, page, Todo::getCreatedAt);
+    }
+
+    public CursorPage<Todo> getTodosByPriorityPage(String userId, Todo.Priority priority, Integer limit, String after) {
+        log.info("Fetching todo page with priority {} for user: {} after: {}", priority, userId, after);
+        TodoCursor cursor = decodeCursor(after);
+        Pageable page = pageRequest(limit);
+        List<Todo> rows = cursor == null
+                ? todoRepository.findFirstPageByPriority(userId, priority, page)
+                : todoRepository.findPageByPriorityAfter(userId, priority, cursor.getSortKey(), cursor.getId(), page);
+        return toPage(rows, page, Todo::getCreatedAt);
+    }
+
+    public CursorPage<Todo> getOverdueTodosPage(String userId, Integer limit, String after) {
+        log.info("Fetching overdue todo page for user: {} after: {}", userId, after);
+        TodoCursor cursor = decodeCursor(after);
+        Pageable page = pageRequest(limit);
+        LocalDateTime now = LocalDateTime.now();
+        List<Todo> rows = cursor == null
+                ? todoRepository.findFirstOverduePage(userId, now, page)
+                : todoRepository.findOverduePageAfter(userId, now, cursor.getSortKey(), cursor.getId(), page);
+        return toPage(rows, page, Todo::getDueDate);
+    }
+
+    public CursorPage<Todo> getTodosByDateRangePage(String userId, LocalDateTime startDate, LocalDateTime endDate,
+                                                    Integer limit, String after) {
+        log.info("Fetching todo page for user: {} between {} and {} after: {}", userId, startDate, endDate, after);
+        TodoCursor cursor = decodeCursor(after);
+        Pageable page = pageRequest(limit);
+        List<Todo> rows = cursor == null
+                ? todoRepository.findFirstDateRangePage(userId, startDate, endDate, page)
+                : todoRepository.findDateRangePageAfter(userId, startDate, endDate,
+                        cursor.getSortKey(), cursor.getId(), page);
+        return toPage(rows, page, Todo::getDueDate);
+    }
+
+    /**
+     * Todos whose title or description contain every term of {@code query}, best match first. The ranking
+     * comes from the in-memory index; only the matching rows are loaded, by primary key.
+     */
+    @Transactional(readOnly = true)
+    public List<Todo> searchTodos(String userId, String query, Integer limit) {
+        log.info("Searching todos for user: {}", userId);
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Long> ids = todoSearchIndex.search(userId, query, size);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Todo> todos = new HashMap<>();
+        for (Todo todo : todoRepository.findAllById(ids)) {
+            if (todo.getUserId().equals(userId)) {
+                todos.put(todo.getId(), todo);
+            }
+        }
+        return ids.stream().map(todos::get).filter(Objects::nonNull).toList();
+    }
+
     public Optional<Todo> getTodoById(Long id, String userId) {
         log.info("Fetching todo with id: {} for user: {}", id, userId);
         return todoRepository.findById(id)
@@ -54,53 +203,372 @@ public class TodoService {
         log.info("Creating new todo for user: {}", todo.getUserId());
         todo.setCreatedAt(LocalDateTime.now());
         todo.setUpdatedAt(LocalDateTime.now());
-        return todoRepository.save(todo);
+        todo.setRemindedAt(null);
+        Todo saved = todoRepository.save(todo);
+        saved.setChangeSeq(todoStatsService.apply(saved.getUserId(), TodoStatsDelta.created(saved)));
+        todosChanged(saved.getUserId());
+        eventPublisher.publishEvent(TodoTextChangedEvent.indexed(saved.getUserId(), List.of(saved)));
+        eventPublisher.publishEvent(TodoStreamEvent.created(saved));
+        return saved;
     }
 
     public Optional<Todo> updateTodo(Long id, Todo todoDetails, String userId) {
+        return updateTodo(id, todoDetails, userId, null);
+    }
+
+    /**
+     * Replaces every field of the todo. With {@code expectedVersion}, fails with
+     * {@link TodoVersionMismatchException} unless the todo is still at that version.
+     */
+    public Optional<Todo> updateTodo(Long id, Todo todoDetails, String userId, Long expectedVersion) {
         log.info("Updating todo with id: {} for user: {}", id, userId);
         return todoRepository.findById(id)
                 .filter(todo -> todo.getUserId().equals(userId))
                 .map(existingTodo -> {
+                    checkVersion(existingTodo, expectedVersion);
+                    boolean wasCompleted = existingTodo.isCompleted();
+                    Todo.Priority oldPriority = existingTodo.getPriority();
                     existingTodo.setTitle(todoDetails.getTitle());
                     existingTodo.setDescription(todoDetails.getDescription());
                     existingTodo.setCompleted(todoDetails.isCompleted());
                     existingTodo.setPriority(todoDetails.getPriority());
-                    existingTodo.setDueDate(todoDetails.getDueDate());
+                    setDueDate(existingTodo, todoDetails.getDueDate());
                     existingTodo.setUpdatedAt(LocalDateTime.now());
-                    return todoRepository.save(existingTodo);
+                    Todo saved = todoRepository.save(existingTodo);
+                    saved.setChangeSeq(todoStatsService.apply(userId, TodoStatsDelta.changed(wasCompleted, oldPriority,
+                            saved.isCompleted(), saved.getPriority())));
+                    todosChanged(userId);
+                    eventPublisher.publishEvent(TodoTextChangedEvent.indexed(userId, List.of(saved)));
+                    eventPublisher.publishEvent(TodoStreamEvent.updated(saved));
+                    return saved;
                 });
     }
 
+    /**
+     * Applies a merge patch in three statements: one read that locks the todo and the user's stats row, the
+     * counter update, and one UPDATE that writes only the patched columns and stamps change_seq. Holding the
+     * stats row fixes the version the bump produces, and the locked row plus the patch is what the UPDATE wrote,
+     * so nothing is read back. Returns the todo as written.
+     */
+    public Optional<Todo> patchTodo(Long id, String userId, TodoPatch patch, Long expectedVersion) {
+        log.info("Patching todo with id: {} for user: {}", id, userId);
+        if (patch.isEmpty()) {
+            Optional<Todo> todo = getTodoById(id, userId);
+            todo.ifPresent(found -> checkVersion(found, expectedVersion));
+            return todo;
+        }
+        Object[] locked = todoRepository.lockWithStats(id, userId).stream().findFirst().orElse(null);
+        Todo todo = locked != null ? (Todo) locked[0] : todoRepository.lockByIdAndUserId(id, userId).orElse(null);
+        if (todo == null) {
+            return Optional.empty();
+        }
+        checkVersion(todo, expectedVersion);
+        TodoStatsDelta delta = patch.changesCounters()
+                ? TodoStatsDelta.changed(todo.isCompleted(), todo.getPriority(),
+                        patch.isCompletedSet() ? patch.isCompleted() : todo.isCompleted(),
+                        patch.isPrioritySet() ? patch.getPriority() : todo.getPriority())
+                : TodoStatsDelta.none();
+        LocalDateTime now = LocalDateTime.now();
+        long changeSeq;
+        if (locked != null) {
+            changeSeq = todoStatsService.applyLocked(userId, delta, ((TodoStats) locked[1]).getVersion());
+            todoRepository.patch(id, userId, patch, expectedVersion, changeSeq, now);
+        } else {
+            // The user's first counted write: the stats row is created by counting todos, so the patch goes first
+            todoRepository.patch(id, userId, patch, expectedVersion, todo.getChangeSeq(), now);
+            changeSeq = todoStatsService.apply(userId, delta);
+            todoRepository.stampChangeSeq(List.of(id), changeSeq);
+        }
+
+        applyPatch(todo, patch);
+        todo.setUpdatedAt(now);
+        todo.setVersion(todo.getVersion() + 1);
+        todo.setChangeSeq(changeSeq);
+        todosChanged(userId);
+        if (patch.changesText()) {
+            eventPublisher.publishEvent(TodoTextChangedEvent.indexed(userId, List.of(todo)));
+        }
+        eventPublisher.publishEvent(TodoStreamEvent.updated(todo));
+        return Optional.of(todo);
+    }
+
     public boolean deleteTodo(Long id, String userId) {
+        return deleteTodo(id, userId, null);
+    }
+
+    public boolean deleteTodo(Long id, String userId, Long expectedVersion) {
         log.info("Deleting todo with id: {} for user: {}", id, userId);
         return todoRepository.findById(id)
                 .filter(todo -> todo.getUserId().equals(userId))
                 .map(todo -> {
+                    checkVersion(todo, expectedVersion);
                     todoRepository.delete(todo);
+                    long changeSeq = todoStatsService.apply(userId, TodoStatsDelta.deleted(todo));
+                    todoSyncService.recordDeletes(userId, List.of(id), changeSeq);
+                    todosChanged(userId);
+                    eventPublisher.publishEvent(TodoTextChangedEvent.removed(userId, List.of(id)));
+                    eventPublisher.publishEvent(TodoStreamEvent.deleted(userId, id, changeSeq));
                     return true;
                 })
                 .orElse(false);
     }
 
+    /**
+     * Deletes every todo of the user that matches the filter, {@value #ID_CHUNK_SIZE} rows per transaction:
+     * one locking read of the matching ids and one set-based DELETE, so no chunk holds row locks for long
+     * and a failure keeps the chunks already committed. Returns the number of todos deleted.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long deleteTodos(String userId, TodoFilter filter) {
+        log.info("Deleting todos for user: {} matching {}", userId, filter);
+        if (filter.isEmpty()) {
+            throw new IllegalArgumentException("Bulk delete needs at least one of completed, priority or dueBefore");
+        }
+        long deleted = 0;
+        long afterId = 0;
+        List<Long> chunk;
+        do {
+            long after = afterId;
+            chunk = transactionTemplate.execute(status -> deleteChunk(userId, filter, after));
+            deleted += chunk.size();
+            if (!chunk.isEmpty()) {
+                afterId = chunk.get(chunk.size() - 1);
+            }
+        } while (chunk.size() == ID_CHUNK_SIZE);
+        return deleted;
+    }
+
     public boolean toggleTodoStatus(Long id, String userId) {
+        return toggleTodoStatus(id, userId, null);
+    }
+
+    /**
+     * Flips the status in one UPDATE, so concurrent toggles never lose one another, and moves the completed
+     * count in the direction the row ended up. Nothing is read back: change_seq is copied from the stats row
+     * in SQL, and the stream reads the todo itself only if someone is listening.
+     */
+    public boolean toggleTodoStatus(Long id, String userId, Long expectedVersion) {
         log.info("Toggling status for todo with id: {} for user: {}", id, userId);
-        return todoRepository.findById(id)
-                .filter(todo -> todo.getUserId().equals(userId))
-                .map(todo -> {
-                    todo.setCompleted(!todo.isCompleted());
-                    todo.setUpdatedAt(LocalDateTime.now());
-                    todoRepository.save(todo);
-                    return true;
-                })
-                .orElse(false);
+        if (todoRepository.toggle(id, userId, expectedVersion, LocalDateTime.now()) == 0) {
+            failIfConflict(id, userId, expectedVersion);
+            return false;
+        }
+        todoStatsService.recordToggle(userId, id);
+        todoRepository.stampCurrentChangeSeq(id);
+        todosChanged(userId);
+        eventPublisher.publishEvent(TodoStreamEvent.toggled(userId, id));
+        return true;
+    }
+
+    /**
+     * Applies creates, updates, toggles and deletes for one user in a single transaction, in that order.
+     * Inserts and updates are flushed as JDBC batches; toggles, deletes and the change_seq stamp run as one
+     * set-based statement per {@value #ID_CHUNK_SIZE} ids.
+     */
+    public TodoBatchResponse applyBatch(String userId, TodoBatchRequest request) {
+        log.info("Applying batch for user: {} with {} items", userId, request.size());
+        if (request.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch cannot exceed " + MAX_BATCH_SIZE + " items");
+        }
+        LocalDateTime now = LocalDateTime.now();
+
+        for (Todo todo : request.getCreate()) {
+            todo.setId(null);
+            todo.setUserId(userId);
+            todo.setCreatedAt(now);
+            todo.setUpdatedAt(now);
+            todo.setRemindedAt(null);
+        }
+        List<Todo> created = todoRepository.saveAll(request.getCreate());
+
+        Map<Long, Todo> updates = new LinkedHashMap<>();
+        for (Todo todo : request.getUpdate()) {
+            if (todo.getId() == null) {
+                throw new IllegalArgumentException("Every updated todo needs an id");
+            }
+            updates.put(todo.getId(), todo);
+        }
+        Set<Long> toggles = new LinkedHashSet<>(request.getToggle());
+        Set<Long> deletes = new LinkedHashSet<>(request.getDelete());
+
+        Set<Long> referenced = new LinkedHashSet<>(updates.keySet());
+        referenced.addAll(toggles);
+        referenced.addAll(deletes);
+        Set<Long> owned = new HashSet<>();
+        for (List<Long> chunk : chunks(referenced)) {
+            todoRepository.findOwners(chunk).stream()
+                    .filter(owner -> owner.getUserId().equals(userId))
+                    .forEach(owner -> owned.add(owner.getId()));
+        }
+        List<Long> notFound = referenced.stream().filter(id -> !owned.contains(id)).toList();
+        updates.keySet().retainAll(owned);
+        toggles.retainAll(owned);
+        deletes.retainAll(owned);
+
+        List<Todo> edited = new ArrayList<>(created);
+        for (List<Long> chunk : chunks(updates.keySet())) {
+            for (Todo existingTodo : todoRepository.findAllById(chunk)) {
+                Todo todoDetails = updates.get(existingTodo.getId());
+                existingTodo.setTitle(todoDetails.getTitle());
+                existingTodo.setDescription(todoDetails.getDescription());
+                existingTodo.setCompleted(todoDetails.isCompleted());
+                existingTodo.setPriority(todoDetails.getPriority());
+                setDueDate(existingTodo, todoDetails.getDueDate());
+                existingTodo.setUpdatedAt(now);
+                edited.add(existingTodo);
+            }
+        }
+        int updated = edited.size() - created.size();
+        int toggled = 0;
+        for (List<Long> chunk : chunks(toggles)) {
+            toggled += todoRepository.toggleByIds(chunk, now);
+        }
+        int deleted = 0;
+        for (List<Long> chunk : chunks(deletes)) {
+            deleted += todoRepository.deleteByIds(chunk);
+        }
+
+        if (!created.isEmpty() || updated + toggled + deleted > 0) {
+            long changeSeq = todoStatsService.recount(userId);
+            Set<Long> written = new LinkedHashSet<>(updates.keySet());
+            created.forEach(todo -> written.add(todo.getId()));
+            written.addAll(toggles);
+            for (List<Long> chunk : chunks(written)) {
+                todoRepository.stampChangeSeq(chunk, changeSeq);
+            }
+            todoSyncService.recordDeletes(userId, deletes, changeSeq);
+            todosChanged(userId);
+            eventPublisher.publishEvent(TodoStreamEvent.changed(userId, changeSeq));
+        }
+        if (!edited.isEmpty() || !deletes.isEmpty()) {
+            eventPublisher.publishEvent(new TodoTextChangedEvent(userId, edited, List.copyOf(deletes)));
+        }
+        return new TodoBatchResponse(created, updated, toggled, deleted, notFound);
     }
 
     public long getCompletedTodoCount(String userId) {
-        return todoRepository.countByUserIdAndCompleted(userId, true);
+        return todoStatsService.getStats(userId).getCompleted();
     }
 
     public long getPendingTodoCount(String userId) {
-        return todoRepository.countByUserIdAndCompleted(userId, false);
+        TodoStats stats = todoStatsService.getStats(userId);
+        return stats.getTotal() - stats.getCompleted();
+    }
+
+    // Changes whenever any of the user's todos is created, changed or deleted
+    public long getTodosVersion(String userId) {
+        return todoStatsService.getVersion(userId);
+    }
+
+    public TodoSummary getSummary(String userId) {
+        log.info("Fetching todo summary for user: {}", userId);
+        return todoStatsService.getSummary(userId);
+    }
+
+    // The version is read first so it never claims more than the list it labels
+    private List<Todo> cachedTodos(String userId, long minVersion) {
+        return todoCache.get(userId, minVersion, () -> new TodoCache.Snapshot(
+                todoStatsService.getVersion(userId),
+                todoRepository.findByUserIdOrderByCreatedAtDesc(userId)));
+    }
+
+    // Null for a user whose list is too large to cache, who is better served by the indexed query for the filter
+    private List<Todo> cachedTodosIfCacheable(String userId, long minVersion) {
+        return todoCache.getIfCacheable(userId, minVersion, () -> todoStatsService.getStats(userId),
+                stats -> todoRepository.findByUserIdOrderByCreatedAtDesc(userId));
+    }
+
+    // Cached lists are dropped once the surrounding transaction commits
+    private void todosChanged(String userId) {
+        eventPublisher.publishEvent(new TodosChangedEvent(userId));
+    }
+
+    // The locked rows give the counter delta; clients fetch the rows from /changes, as after a batch
+    private List<Long> deleteChunk(String userId, TodoFilter filter, long afterId) {
+        List<Todo> rows = todoRepository.lockMatching(userId, filter, afterId, ID_CHUNK_SIZE);
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = rows.stream().map(Todo::getId).toList();
+        TodoStatsDelta delta = rows.stream()
+                .map(TodoStatsDelta::deleted)
+                .reduce(TodoStatsDelta.none(), TodoStatsDelta::plus);
+        todoRepository.deleteByIds(ids);
+        long changeSeq = todoStatsService.apply(userId, delta);
+        todoSyncService.recordDeletes(userId, ids, changeSeq);
+        todosChanged(userId);
+        eventPublisher.publishEvent(TodoTextChangedEvent.removed(userId, ids));
+        eventPublisher.publishEvent(TodoStreamEvent.changed(userId, changeSeq));
+        return ids;
+    }
+
+    private static void checkVersion(Todo todo, Long expectedVersion) {
+        if (expectedVersion != null && todo.getVersion() != expectedVersion) {
+            throw new TodoVersionMismatchException(todo.getId(), expectedVersion, todo.getVersion());
+        }
+    }
+
+    // A guarded write updated nothing: either the todo is not the user's, or it has moved past expectedVersion
+    private void failIfConflict(Long id, String userId, Long expectedVersion) {
+        if (expectedVersion != null && todoRepository.findVersion(id, userId).isPresent()) {
+            throw new TodoVersionMismatchException(id, expectedVersion);
+        }
+    }
+
+    // The patch applied to the todo as read, the same way the patch UPDATE applies it to the row
+    private static void applyPatch(Todo todo, TodoPatch patch) {
+        if (patch.isTitleSet()) {
+            todo.setTitle(patch.getTitle());
+        }
+        if (patch.isDescriptionSet()) {
+            todo.setDescription(patch.getDescription());
+        }
+        if (patch.isCompletedSet()) {
+            todo.setCompleted(patch.isCompleted());
+        }
+        if (patch.isPrioritySet()) {
+            todo.setPriority(patch.getPriority());
+        }
+        if (patch.isDueDateSet()) {
+            setDueDate(todo, patch.getDueDate());
+        }
+    }
+
+    // A new due date gets its own reminder
+    private static void setDueDate(Todo todo, LocalDateTime dueDate) {
+        if (!Objects.equals(todo.getDueDate(), dueDate)) {
+            todo.setDueDate(dueDate);
+            todo.setRemindedAt(null);
+        }
+    }
+
+    // Bounded IN lists keep statement size and plan-cache entries predictable
+    private static List<List<Long>> chunks(Collection<Long> ids) {
+        List<Long> list = new ArrayList<>(ids);
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += ID_CHUNK_SIZE) {
+            chunks.add(list.subList(i, Math.min(list.size(), i + ID_CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+
+    private TodoCursor decodeCursor(String after) {
+        return after == null || after.isBlank() ? null : TodoCursor.decode(after);
+    }
+
+    // Fetch one extra row so we know whether another page exists without a count query
+    private Pageable pageRequest(Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return PageRequest.of(0, size + 1);
+    }
+
+    private CursorPage<Todo> toPage(List<Todo> rows, Pageable page, Function<Todo, LocalDateTime> sortKey) {
+        int size = page.getPageSize() - 1;
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null, false);
+        }
+        List<Todo> items = rows.subList(0, size);
+        Todo last = items.get(size - 1);
+        return new CursorPage<>(items, new TodoCursor(sortKey.apply(last), last.getId()).encode(), true);
     }
 }
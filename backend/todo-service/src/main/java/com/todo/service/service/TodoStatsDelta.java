@@ -0,0 +1,49 @@
+package com.todo.service.service;
+
+import com.todo.service.entity.Todo;
+import lombok.Value;
+
+/**
+ * Change to a user's summary counters caused by a single todo write.
+ */
+@Value
+public class TodoStatsDelta {
+
+    long total;
+    long completed;
+    long low;
+    long medium;
+    long high;
+    long urgent;
+
+    // A write that leaves the counters alone, such as a new title, still bumps the version
+    public static TodoStatsDelta none() {
+        return new TodoStatsDelta(0, 0, 0, 0, 0, 0);
+    }
+
+    public static TodoStatsDelta created(Todo todo) {
+        return of(1, todo.isCompleted(), todo.getPriority());
+    }
+
+    public static TodoStatsDelta deleted(Todo todo) {
+        return of(-1, todo.isCompleted(), todo.getPriority());
+    }
+
+    public static TodoStatsDelta changed(boolean wasCompleted, Todo.Priority oldPriority,
+                                         boolean completed, Todo.Priority priority) {
+        return of(-1, wasCompleted, oldPriority).plus(of(1, completed, priority));
+    }
+
+    public TodoStatsDelta plus(TodoStatsDelta other) {
+        return new TodoStatsDelta(total + other.total, completed + other.completed, low + other.low,
+                medium + other.medium, high + other.high, urgent + other.urgent);
+    }
+
+    private static TodoStatsDelta of(long sign, boolean completed, Todo.Priority priority) {
+        return new TodoStatsDelta(sign, completed ? sign : 0,
+                priority == Todo.Priority.LOW ? sign : 0,
+                priority == Todo.Priority.MEDIUM ? sign : 0,
+                priority == Todo.Priority.HIGH ? sign : 0,
+                priority == Todo.Priority.URGENT ? sign : 0);
+    }
+}
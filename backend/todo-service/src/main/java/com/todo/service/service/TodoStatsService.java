@@ -0,0 +1,209 @@
+package com.todo.service.service;
+
+import com.todo.service.dto.TodoSummary;
+import com.todo.service.entity.Todo;
+import com.todo.service.entity.TodoStats;
+import com.todo.service.repository.TodoRepository;
+import com.todo.service.repository.TodoStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the per-user counters in {@code todo_stats}. Writers apply deltas inside their own
+ * transaction; {@link #repairAll()} recounts from {@code todos} to correct any drift.
+ * <p>
+ * Every write also bumps the user's {@code version}, which the controller serves as an ETag. A user
+ * without a row is at version 0; the first write leaves the row at version 1 or above. Writers get the
+ * new version back and stamp it on the rows they touched as their {@code change_seq}; the bump holds the
+ * row lock until commit, so a user's versions commit in order.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TodoStatsService {
+
+    static final int REPAIR_CHUNK_SIZE = 500;
+
+    private final TodoStatsRepository todoStatsRepository;
+    private final TodoRepository todoRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long apply(String userId, TodoStatsDelta delta) {
+        record(userId, delta);
+        return currentVersion(userId);
+    }
+
+    /**
+     * As {@link #apply}, for a writer that already holds the user's stats row under lock at {@code lockedVersion}:
+     * the bump takes it to the next version, so nothing is read back.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long applyLocked(String userId, TodoStatsDelta delta, long lockedVersion) {
+        record(userId, delta);
+        return lockedVersion + 1;
+    }
+
+    /**
+     * As {@link #apply}, for writers that stamp the new version in SQL and do not need it back.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String userId, TodoStatsDelta delta) {
+        // Runs even for an empty delta: an edited title leaves the counters alone but must still bump the version
+        LocalDateTime now = LocalDateTime.now();
+        int updated = todoStatsRepository.applyDelta(userId, delta.getTotal(), delta.getCompleted(),
+                delta.getLow(), delta.getMedium(), delta.getHigh(), delta.getUrgent(), now);
+        if (updated == 0) {
+            createAndCount(userId, now);
+        }
+    }
+
+    // For a toggle made in SQL, whose new status the caller has not read
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordToggle(String userId, Long todoId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (todoStatsRepository.applyToggle(userId, todoId, now) == 0) {
+            createAndCount(userId, now);
+        }
+    }
+
+    // For set-based writes whose per-row effect is not known to the caller
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long recount(String userId) {
+        createAndCount(userId, LocalDateTime.now());
+        return currentVersion(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public long getVersion(String userId) {
+        return todoStatsRepository.findVersion(userId).orElse(0L);
+    }
+
+    @Transactional(readOnly = true)
+    public TodoStats getStats(String userId) {
+        return todoStatsRepository.findById(userId).orElseGet(() -> new TodoStats(userId));
+    }
+
+    @Transactional(readOnly = true)
+    public TodoSummary getSummary(String userId) {
+        TodoStats stats = getStats(userId);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime endOfDay = now.toLocalDate().plusDays(1).atStartOfDay();
+        Object[] due = todoRepository.countPendingDue(userId, now, endOfDay).get(0);
+
+        Map<Todo.Priority, Long> byPriority = new EnumMap<>(Todo.Priority.class);
+        for (Todo.Priority priority : Todo.Priority.values()) {
+            byPriority.put(priority, stats.countFor(priority));
+        }
+        return new TodoSummary(stats.getTotal(), stats.getCompleted(), stats.getTotal() - stats.getCompleted(),
+                toLong(due[0]), toLong(due[1]), byPriority);
+    }
+
+    /**
+     * Recounts every user's counters in chunks of {@value #REPAIR_CHUNK_SIZE} users, one transaction per chunk.
+     * Returns the number of rows that had drifted.
+     */
+    public int repairAll() {
+        int repaired = 0;
+        String after = "";
+        List<String> userIds;
+        do {
+            userIds = todoRepository.findUserIdsAfter(after, PageRequest.of(0, REPAIR_CHUNK_SIZE));
+            if (userIds.isEmpty()) {
+                break;
+            }
+            List<String> chunk = userIds;
+            repaired += transactionTemplate.execute(status -> recountUsers(chunk, LocalDateTime.now()));
+            after = userIds.get(userIds.size() - 1);
+        } while (userIds.size() == REPAIR_CHUNK_SIZE);
+
+        repaired += transactionTemplate.execute(status -> todoStatsRepository.zeroOrphanedStats(LocalDateTime.now()));
+        return repaired;
+    }
+
+    // Locks the stats rows first so writers for these users wait until the recount commits
+    private int recountUsers(Collection<String> userIds, LocalDateTime now) {
+        Map<String, TodoStats> existing = new HashMap<>();
+        todoStatsRepository.lockByUserIds(userIds).forEach(stats -> existing.put(stats.getUserId(), stats));
+
+        Map<String, TodoStats> counted = new HashMap<>();
+        userIds.forEach(userId -> counted.put(userId, new TodoStats(userId)));
+        for (Object[] row : todoRepository.countGroupsByUserIds(userIds)) {
+            add(counted.get((String) row[0]), (Boolean) row[1], (Todo.Priority) row[2], toLong(row[3]));
+        }
+
+        int drifted = 0;
+        for (TodoStats fresh : counted.values()) {
+            TodoStats stats = existing.get(fresh.getUserId());
+            if (stats != null && sameCounts(stats, fresh)) {
+                continue;
+            }
+            if (stats != null) {
+                drifted++;
+                log.warn("Correcting todo counters for user: {}", fresh.getUserId());
+            } else {
+                stats = fresh;
+            }
+            stats.setTotal(fresh.getTotal());
+            stats.setCompleted(fresh.getCompleted());
+            stats.setLowCount(fresh.getLowCount());
+            stats.setMediumCount(fresh.getMediumCount());
+            stats.setHighCount(fresh.getHighCount());
+            stats.setUrgentCount(fresh.getUrgentCount());
+            stats.setUpdatedAt(now);
+            todoStatsRepository.save(stats);
+        }
+        return drifted;
+    }
+
+    // First write for this user: create the row and count from todos, which already include this write
+    private void createAndCount(String userId, LocalDateTime now) {
+        todoStatsRepository.insertEmptyIfAbsent(userId, now);
+        recountUsers(List.of(userId), now);
+        todoStatsRepository.bumpVersion(userId, now);
+    }
+
+    // Read back inside the writing transaction, under the row lock the bump took
+    private long currentVersion(String userId) {
+        return todoStatsRepository.findVersion(userId)
+                .orElseThrow(() -> new IllegalStateException("No todo_stats row for user: " + userId));
+    }
+
+    private static void add(TodoStats stats, boolean completed, Todo.Priority priority, long count) {
+        stats.setTotal(stats.getTotal() + count);
+        if (completed) {
+            stats.setCompleted(stats.getCompleted() + count);
+        }
+        if (priority == null) {
+            return;
+        }
+        switch (priority) {
+            case LOW -> stats.setLowCount(stats.getLowCount() + count);
+            case MEDIUM -> stats.setMediumCount(stats.getMediumCount() + count);
+            case HIGH -> stats.setHighCount(stats.getHighCount() + count);
+            case URGENT -> stats.setUrgentCount(stats.getUrgentCount() + count);
+        }
+    }
+
+    private static boolean sameCounts(TodoStats a, TodoStats b) {
+        return a.getTotal() == b.getTotal() && a.getCompleted() == b.getCompleted()
+                && a.getLowCount() == b.getLowCount() && a.getMediumCount() == b.getMediumCount()
+                && a.getHighCount() == b.getHighCount() && a.getUrgentCount() == b.getUrgentCount();
+    }
+
+    private static long toLong(Object value) {
+        return value == null ? 0 : ((Number) value).longValue();
+    }
+}
@@ -0,0 +1,118 @@
+package com.todo.service.service;
+
+import com.todo.service.dto.TodoChanges;
+import com.todo.service.entity.Todo;
+import com.todo.service.entity.TodoTombstone;
+import com.todo.service.repository.TodoRepository;
+import com.todo.service.repository.TodoTombstoneRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Delta sync. Every write stamps the rows it touches with the user's new {@code todo_stats.version}
+ * ({@code change_seq}) and records deleted ids as tombstones at that version, so a client holding a token
+ * only fetches what changed after it. Tombstones are kept for {@code tombstone-retention-days}; older tokens
+ * are refused and the client resyncs from scratch.
+ */
+@Service
+@Slf4j
+public class TodoSyncService {
+
+    public static final int DEFAULT_PAGE_SIZE = 500;
+    public static final int MAX_PAGE_SIZE = 1000;
+    static final int PURGE_CHUNK_SIZE = 1000;
+
+    // Tokens are stamped and tombstones purged by different nodes' clocks
+    private static final Duration CLOCK_SKEW_MARGIN = Duration.ofHours(1);
+
+    private final TodoRepository todoRepository;
+    private final TodoTombstoneRepository todoTombstoneRepository;
+    private final TodoStatsService todoStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+
+    public TodoSyncService(TodoRepository todoRepository,
+                           TodoTombstoneRepository todoTombstoneRepository,
+                           TodoStatsService todoStatsService,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${app.todo-sync.tombstone-retention-days:30}") int retentionDays) {
+        this.todoRepository = todoRepository;
+        this.todoTombstoneRepository = todoTombstoneRepository;
+        this.todoStatsService = todoStatsService;
+        this.transactionTemplate = transactionTemplate;
+        this.retention = Duration.ofDays(retentionDays);
+    }
+
+    /**
+     * Todos written and ids deleted after {@code since}, or every todo when it is absent. Pages are
+     * keyset-ordered by (change_seq, id); the final page's token marks the user's version as read up front,
+     * so a write racing the read is at worst delivered twice, never skipped.
+     */
+    @Transactional(readOnly = true)
+    public TodoChanges getChanges(String userId, String since, Integer limit) {
+        log.info("Fetching todo changes for user: {} since: {}", userId, since);
+        LocalDateTime now = LocalDateTime.now();
+        TodoSyncToken token = since == null || since.isBlank() ? null : TodoSyncToken.decode(since);
+        if (token != null && token.getIssuedAt().isBefore(now.minus(retention).plus(CLOCK_SKEW_MARGIN))) {
+            throw new SyncTokenExpiredException("Sync token expired, sync again without one");
+        }
+        // Versions commit in order, so every write at or below this one is already visible
+        long version = todoStatsService.getVersion(userId);
+
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long afterSeq = token == null ? -1 : token.getChangeSeq();
+        long afterId = token == null || token.getAfterId() == null ? Long.MAX_VALUE : token.getAfterId();
+        List<Todo> rows = todoRepository.findChangedAfter(userId, afterSeq, afterId, PageRequest.of(0, size + 1));
+
+        boolean hasMore = rows.size() > size;
+        List<Todo> changed = hasMore ? rows.subList(0, size) : rows;
+        Todo last = hasMore ? changed.get(size - 1) : null;
+        // A first sync has nothing to delete; later pages cover the tombstones up to their last row
+        List<Long> deleted = token == null
+                ? List.of()
+                : todoTombstoneRepository.findDeletedIds(userId, afterSeq,
+                        hasMore ? last.getChangeSeq() : Long.MAX_VALUE);
+
+        TodoSyncToken next = hasMore
+                // Deletes still to come happened after this sync started, so its start time carries over
+                ? new TodoSyncToken(last.getChangeSeq(), last.getId(), token == null ? now : token.getIssuedAt())
+                : new TodoSyncToken(version, null, now);
+        return new TodoChanges(changed, deleted, next.encode(), hasMore);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeletes(String userId, Collection<Long> ids, long changeSeq) {
+        LocalDateTime now = LocalDateTime.now();
+        todoTombstoneRepository.saveAll(ids.stream()
+                .map(id -> new TodoTombstone(id, userId, changeSeq, now))
+                .toList());
+    }
+
+    /**
+     * Deletes tombstones past retention in chunks of {@value #PURGE_CHUNK_SIZE}, one transaction per chunk.
+     * Returns the number removed.
+     */
+    public int purgeTombstones() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int purged = 0;
+        int removed;
+        do {
+            removed = transactionTemplate.execute(status -> {
+                List<Long> ids = todoTombstoneRepository.findIdsOlderThan(cutoff, PageRequest.of(0, PURGE_CHUNK_SIZE));
+                return ids.isEmpty() ? 0 : todoTombstoneRepository.deleteByIds(ids);
+            });
+            purged += removed;
+        } while (removed == PURGE_CHUNK_SIZE);
+        return purged;
+    }
+}
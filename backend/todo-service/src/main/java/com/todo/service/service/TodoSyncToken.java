@@ -0,0 +1,45 @@
+package com.todo.service.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position in a user's change sequence: every change up to {@code changeSeq} has been delivered, and at
+ * {@code changeSeq} itself every row up to {@code afterId} (all of them when it is null). {@code issuedAt}
+ * is when the sync that produced the token started; tombstones older than that are not needed, so the token
+ * stays usable for as long as tombstones are retained. Clients only ever see the Base64 encoded form.
+ */
+@Getter
+@RequiredArgsConstructor
+public class TodoSyncToken {
+
+    private final long changeSeq;
+    private final Long afterId;
+    private final LocalDateTime issuedAt;
+
+    public String encode() {
+        String raw = changeSeq + "|" + (afterId == null ? "" : afterId) + "|" + issuedAt;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TodoSyncToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException();
+            }
+            return new TodoSyncToken(
+                Long.parseLong(parts[0]),
+                parts[1].isEmpty() ? null : Long.valueOf(parts[1]),
+                LocalDateTime.parse(parts[2])
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid sync token: " + token);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.todo.service.service;
+
+/**
+ * The todo has changed since the client read the version it sent in If-Match. The client has to read the
+ * todo again and reapply its edit.
+ */
+public class TodoVersionMismatchException extends RuntimeException {
+
+    public TodoVersionMismatchException(Long id, long expected, long actual) {
+        super("Todo " + id + " is at version " + actual + ", not " + expected);
+    }
+
+    public TodoVersionMismatchException(Long id, long expected) {
+        super("Todo " + id + " is no longer at version " + expected);
+    }
+}
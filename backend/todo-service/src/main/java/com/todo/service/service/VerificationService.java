@@ -3,15 +3,17 @@ package com.todo.service.service;
 import com.todo.service.entity.User;
 import com.todo.service.entity.VerificationCode;
 import com.todo.service.repository.UserRepository;
-import com.todo.service.repository.VerificationCodeRepository;
+import com.todo.service.security.PrincipalChangedEvent;
+import com.todo.service.verification.VerificationCodeStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.security.SecureRandom;
-import java.time.LocalDateTime;
+import java.time.Duration;
 import java.util.Optional;
 
 @Service
@@ -19,9 +21,10 @@ import java.util.Optional;
 @Slf4j
 public class VerificationService {
 
-    private final VerificationCodeRepository verificationCodeRepository;
+    private final VerificationCodeStore verificationCodeStore;
     private final UserRepository userRepository;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${app.email.verification.code-expiry-minutes:15}")
     private int codeExpiryMinutes;
@@ -34,39 +37,18 @@ public class VerificationService {
         // Generate a 6-digit numeric code (faster method)
         int code = 100000 + random.nextInt(900000); // Generates 100000-999999
         
-        // Save the verification code
-        VerificationCode verificationCode = new VerificationCode();
-        verificationCode.setEmail(email);
-        verificationCode.setCode(String.valueOf(code));
-        verificationCode.setType(type);
-        verificationCode.setExpiresAt(LocalDateTime.now().plusMinutes(codeExpiryMinutes));
-        verificationCode.setUsed(false);
-
-        verificationCodeRepository.save(verificationCode);
+        verificationCodeStore.save(email, type, String.valueOf(code), Duration.ofMinutes(codeExpiryMinutes));
         
         log.info("Generated {} code for email: {}", type, email);
         return String.valueOf(code);
     }
 
     public boolean verifyCode(String email, String code, VerificationCode.CodeType type) {
-        Optional<VerificationCode> verificationCodeOpt = verificationCodeRepository
-                .findByEmailAndCodeAndTypeAndUsedFalse(email, code, type);
-
-        if (verificationCodeOpt.isEmpty()) {
-            log.warn("Invalid verification code for email: {}", email);
-            return false;
-        }
-
-        VerificationCode verificationCode = verificationCodeOpt.get();
-        
-        if (!verificationCode.isValid()) {
-            log.warn("Expired verification code for email: {}", email);
+        // Checks and uses up the code in one step
+        if (!verificationCodeStore.consume(email, type, code)) {
+            log.warn("Invalid or expired verification code for email: {}", email);
             return false;
         }
-
-        // Mark the code as used
-        verificationCode.setUsed(true);
-        verificationCodeRepository.save(verificationCode);
         
         log.info("Successfully verified {} code for email: {}", type, email);
         return true;
@@ -104,18 +86,19 @@ public class VerificationService {
         User user = userOpt.get();
         user.setEnabled(true);
         userRepository.save(user);
+        eventPublisher.publishEvent(new PrincipalChangedEvent(user.getUsername()));
         
         log.info("User activated successfully for email: {}", email);
         return true;
     }
 
-    @Transactional
     public void markAllCodesAsUsed(String email, VerificationCode.CodeType type) {
-        verificationCodeRepository.markCodesAsUsed(email, type);
+        verificationCodeStore.invalidateAll(email, type);
     }
 
-    public void cleanupExpiredCodes() {
-        verificationCodeRepository.deleteExpiredCodes(LocalDateTime.now());
-        log.info("Cleaned up expired verification codes");
+    public int cleanupExpiredCodes() {
+        int purged = verificationCodeStore.purgeExpired();
+        log.info("Cleaned up {} expired verification codes", purged);
+        return purged;
     }
 }
@@ -0,0 +1,232 @@
+package com.todo.service.stream;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todo.service.entity.Todo;
+import com.todo.service.repository.TodoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events for each user's open tabs. Streams are async servlet requests, so an idle stream
+ * holds a socket but no thread. Committed writes are queued on every stream of the user on this node,
+ * and a virtual thread per busy stream writes them out; the writing transaction never waits on a client.
+ * <p>
+ * Each stream buffers at most {@code buffer-size} events. A client that falls further behind is
+ * disconnected rather than buffered for; it reconnects and catches up through the changes endpoint.
+ * A heartbeat comment every {@code heartbeat-interval-ms} keeps proxies from closing idle streams and
+ * finds dead ones. Like the search index, this is node-local: each node streams the writes it makes itself.
+ * Events that arrive without their todo are completed with one primary-key read, once per event rather than
+ * per stream, and only when the user has a stream open here.
+ */
+@Component
+@Slf4j
+public class TodoEventStream {
+
+    private static final Message HEARTBEAT = new Message(null, null);
+
+    private final Map<String, Set<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger open = new AtomicInteger();
+    private final ExecutorService senders =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("todo-stream-", 0).factory());
+    private final ObjectMapper objectMapper;
+    private final TodoRepository todoRepository;
+    private final long timeoutMillis;
+    private final int bufferSize;
+    private final Counter evictions;
+
+    public TodoEventStream(ObjectMapper objectMapper,
+                           TodoRepository todoRepository,
+                           @Value("${app.todo-stream.timeout-ms:1800000}") long timeoutMillis,
+                           @Value("${app.todo-stream.buffer-size:32}") int bufferSize,
+                           MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.todoRepository = todoRepository;
+        this.timeoutMillis = timeoutMillis;
+        this.bufferSize = bufferSize;
+        this.evictions = Counter.builder("todo.stream.evictions").register(meterRegistry);
+        Gauge.builder("todo.stream.connections", open, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream for the user. Its first event, {@code ready}, carries the user's todo version, so a
+     * reconnecting client can tell whether it missed anything while it was away.
+     */
+    public SseEmitter open(String userId, long version) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Connection connection = new Connection(userId, emitter, bufferSize);
+        connections.compute(userId, (key, userConnections) -> {
+            Set<Connection> set = userConnections == null ? ConcurrentHashMap.newKeySet() : userConnections;
+            set.add(connection);
+            return set;
+        });
+        open.incrementAndGet();
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onError(e -> remove(connection));
+        // Browsers reconnect on their own, which also spreads long-lived streams across nodes
+        emitter.onTimeout(() -> {
+            remove(connection);
+            emitter.complete();
+        });
+        connection.offer(new Message("ready", json(new Payload(version, null, null))));
+        return emitter;
+    }
+
+    public int connectionCount() {
+        return open.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoStreamEvent changed) {
+        TodoStreamEvent event = changed;
+        Set<Connection> userConnections = connections.get(event.userId());
+        if (userConnections == null || userConnections.isEmpty()) {
+            return;
+        }
+        if (event.type() == TodoStreamEvent.Type.TOGGLED && event.todo() == null) {
+            // Committed by now; a todo deleted since then is announced by its own event
+            Optional<Todo> todo = todoRepository.findById(event.todoId())
+                    .filter(found -> found.getUserId().equals(changed.userId()));
+            if (todo.isEmpty()) {
+                return;
+            }
+            event = TodoStreamEvent.toggled(todo.get());
+        }
+        Long id = event.todo() == null ? event.todoId() : null;
+        Message message = new Message(event.type().name().toLowerCase(Locale.ROOT),
+                json(new Payload(event.version(), id, event.todo())));
+        for (Connection connection : userConnections) {
+            connection.offer(message);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${app.todo-stream.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        for (Set<Connection> userConnections : connections.values()) {
+            for (Connection connection : userConnections) {
+                connection.offer(HEARTBEAT);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        for (Set<Connection> userConnections : connections.values()) {
+            for (Connection connection : userConnections) {
+                connection.emitter.complete();
+            }
+        }
+    }
+
+    private void remove(Connection connection) {
+        if (!connection.closed.compareAndSet(false, true)) {
+            return;
+        }
+        open.decrementAndGet();
+        connections.computeIfPresent(connection.userId, (key, userConnections) -> {
+            userConnections.remove(connection);
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+    }
+
+    private String json(Payload payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize todo stream event", e);
+        }
+    }
+
+    // A null name marks the heartbeat comment
+    private record Message(String name, String data) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private record Payload(long version, Long id, Todo todo) {
+    }
+
+    private final class Connection {
+
+        private final String userId;
+        private final SseEmitter emitter;
+        private final Queue<Message> buffer;
+        // Set while a sender is draining the buffer, so at most one thread writes to the response
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean evicted;
+
+        Connection(String userId, SseEmitter emitter, int bufferSize) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void offer(Message message) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(message)) {
+                log.info("Disconnecting todo stream for user: {}, {} events behind", userId, bufferSize);
+                evictions.increment();
+                evicted = true;
+                buffer.clear();
+            }
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                do {
+                    Message message;
+                    while (!evicted && (message = buffer.poll()) != null) {
+                        send(message);
+                    }
+                    if (evicted) {
+                        remove(this);
+                        emitter.complete();
+                        return;
+                    }
+                    sending.set(false);
+                    // An offer may have landed after the last poll but before the flag was cleared
+                } while (!buffer.isEmpty() && sending.compareAndSet(false, true));
+            } catch (IOException | IllegalStateException e) {
+                // The client has gone; the emitter reports the failure to the container, which completes it
+                log.debug("Todo stream for user: {} closed: {}", userId, e.getMessage());
+                remove(this);
+            }
+        }
+
+        private void send(Message message) throws IOException {
+            if (message.name() == null) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } else {
+                emitter.send(SseEmitter.event().name(message.name()).data(message.data()));
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.todo.service.stream;
+
+import com.todo.service.entity.Todo;
+
+/**
+ * Published inside the transaction that changed some of the user's todos; pushed to the user's open
+ * streams once it commits. {@code version} is the user's todo version after the write. Batch writes,
+ * imports and bulk deletes are published as one {@link Type#CHANGED} per transaction with no todo, which
+ * tells the client to fetch the changes since its last sync token. A toggle made in one UPDATE is published
+ * with only the todo id and version 0; the stream reads the row back after commit, and only for users
+ * with a stream open.
+ */
+public record TodoStreamEvent(String userId, Type type, long version, Todo todo, Long todoId) {
+
+    public enum Type {
+        CREATED, UPDATED, TOGGLED, DELETED, CHANGED
+    }
+
+    public static TodoStreamEvent created(Todo todo) {
+        return new TodoStreamEvent(todo.getUserId(), Type.CREATED, todo.getChangeSeq(), todo, todo.getId());
+    }
+
+    public static TodoStreamEvent updated(Todo todo) {
+        return new TodoStreamEvent(todo.getUserId(), Type.UPDATED, todo.getChangeSeq(), todo, todo.getId());
+    }
+
+    public static TodoStreamEvent toggled(Todo todo) {
+        return new TodoStreamEvent(todo.getUserId(), Type.TOGGLED, todo.getChangeSeq(), todo, todo.getId());
+    }
+
+    public static TodoStreamEvent toggled(String userId, Long todoId) {
+        return new TodoStreamEvent(userId, Type.TOGGLED, 0, null, todoId);
+    }
+
+    public static TodoStreamEvent deleted(String userId, Long todoId, long version) {
+        return new TodoStreamEvent(userId, Type.DELETED, version, null, todoId);
+    }
+
+    public static TodoStreamEvent changed(String userId, long version) {
+        return new TodoStreamEvent(userId, Type.CHANGED, version, null, null);
+    }
+}
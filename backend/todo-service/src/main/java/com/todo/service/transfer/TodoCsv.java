@@ -0,0 +1,182 @@
+package com.todo.service.transfer;
+
+import com.todo.service.entity.Todo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The CSV layout of a todo: RFC 4180 quoting, ISO-8601 timestamps and an empty field for a missing value.
+ * Export writes every column; import reads the columns it finds by header name.
+ */
+public final class TodoCsv {
+
+    public static final String[] COLUMNS =
+            {"id", "title", "description", "completed", "priority", "dueDate", "createdAt", "updatedAt"};
+
+    private TodoCsv() {
+    }
+
+    public static void writeHeader(Writer writer) throws IOException {
+        writer.write(String.join(",", COLUMNS));
+        writer.write("\r\n");
+    }
+
+    public static void writeRow(Writer writer, Todo todo) throws IOException {
+        writer.write(String.valueOf(todo.getId()));
+        writer.write(',');
+        writeField(writer, todo.getTitle());
+        writer.write(',');
+        writeField(writer, todo.getDescription());
+        writer.write(',');
+        writer.write(Boolean.toString(todo.isCompleted()));
+        writer.write(',');
+        writer.write(todo.getPriority().name());
+        writer.write(',');
+        writeDateTime(writer, todo.getDueDate());
+        writer.write(',');
+        writeDateTime(writer, todo.getCreatedAt());
+        writer.write(',');
+        writeDateTime(writer, todo.getUpdatedAt());
+        writer.write("\r\n");
+    }
+
+    /**
+     * Reads the next record, or returns null at the end of the input. Quoted fields may contain commas,
+     * doubled quotes and line breaks; records end with LF or CRLF.
+     */
+    public static List<String> readRecord(BufferedReader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("CSV input ends inside a quoted field");
+                }
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else if (c == '\r') {
+                reader.mark(1);
+                if (reader.read() != '\n') {
+                    reader.reset();
+                }
+                break;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // Column name to position, from a header record; a leading byte order mark is ignored
+    public static Map<String, Integer> columns(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = i == 0 && header.get(0).startsWith("\uFEFF") ? header.get(0).substring(1) : header.get(i);
+            columns.put(name.trim(), i);
+        }
+        if (!columns.containsKey("title")) {
+            throw new IllegalArgumentException("CSV header must include a title column");
+        }
+        return columns;
+    }
+
+    /**
+     * The todo described by a record. Only title, description, completed, priority and dueDate are read;
+     * an empty or missing field leaves the todo's default in place.
+     *
+     * @throws IllegalArgumentException when a field cannot be parsed
+     */
+    public static Todo readTodo(List<String> record, Map<String, Integer> columns) {
+        Todo todo = new Todo();
+        todo.setTitle(field(record, columns, "title"));
+        todo.setDescription(field(record, columns, "description"));
+        String completed = field(record, columns, "completed");
+        if (completed != null) {
+            if (!completed.equalsIgnoreCase("true") && !completed.equalsIgnoreCase("false")) {
+                throw new IllegalArgumentException("completed must be true or false, got: " + completed);
+            }
+            todo.setCompleted(Boolean.parseBoolean(completed));
+        }
+        String priority = field(record, columns, "priority");
+        if (priority != null) {
+            try {
+                todo.setPriority(Todo.Priority.valueOf(priority.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown priority: " + priority);
+            }
+        }
+        String dueDate = field(record, columns, "dueDate");
+        if (dueDate != null) {
+            try {
+                todo.setDueDate(LocalDateTime.parse(dueDate.trim()));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("dueDate must be an ISO-8601 date-time, got: " + dueDate);
+            }
+        }
+        return todo;
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size() || record.get(index).isEmpty()) {
+            return null;
+        }
+        return record.get(index);
+    }
+
+    private static void writeDateTime(Writer writer, LocalDateTime value) throws IOException {
+        if (value != null) {
+            writer.write(value.toString());
+        }
+    }
+
+    private static void writeField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,37 @@
+package com.todo.service.transfer;
+
+import java.util.Locale;
+
+/**
+ * Wire formats for exporting and importing todos: one JSON object per line, or CSV with a header row.
+ */
+public enum TodoFormat {
+
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    TodoFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static TodoFormat fromParam(String format) {
+        for (TodoFormat candidate : values()) {
+            if (candidate.extension.equals(format.toLowerCase(Locale.ROOT))) {
+                return candidate;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported format: " + format + " (expected ndjson or csv)");
+    }
+}
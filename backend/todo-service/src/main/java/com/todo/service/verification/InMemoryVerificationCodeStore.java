@@ -0,0 +1,228 @@
+package com.todo.service.verification;
+
+import com.todo.service.entity.VerificationCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Codes kept in this node's heap, for single-node deployments: they are not shared between nodes and are
+ * lost on restart, after which users request a new one.
+ * <p>
+ * Codes are spread over shards by email, each with its own lock, map and timing wheel. The map holds at most
+ * {@code max-codes-per-account} codes per email and type, the oldest giving way, so verifying and consuming
+ * is one lookup and a scan of a handful of codes. The wheel has one slot per {@code tick-ms}; every code is
+ * filed under the slot of its expiry tick and removed when the wheel reaches it, so expiry never scans the
+ * whole store. {@link #consume} also checks the deadline, so a code is never accepted late.
+ */
+@Component
+@ConditionalOnProperty(name = "app.email.verification.store", havingValue = "memory")
+public class InMemoryVerificationCodeStore implements VerificationCodeStore {
+
+    private final Shard[] shards;
+    private final long tickNanos;
+    private final int wheelMask;
+    private final int maxCodesPerAccount;
+    private final long startNanos = System.nanoTime();
+    private final ReentrantLock advancing = new ReentrantLock();
+    private long lastTick;
+
+    public InMemoryVerificationCodeStore(@Value("${app.email.verification.memory.shards:16}") int shards,
+                                         @Value("${app.email.verification.memory.tick-ms:1000}") long tickMillis,
+                                         @Value("${app.email.verification.memory.wheel-size:1024}") int wheelSize,
+                                         @Value("${app.email.verification.memory.max-codes-per-account:5}") int maxCodesPerAccount) {
+        int slots = Integer.highestOneBit(Math.max(2, wheelSize - 1)) << 1;
+        this.shards = new Shard[Math.max(1, shards)];
+        for (int i = 0; i < this.shards.length; i++) {
+            this.shards[i] = new Shard(slots);
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.wheelMask = slots - 1;
+        this.maxCodesPerAccount = Math.max(1, maxCodesPerAccount);
+    }
+
+    @Override
+    public void save(String email, VerificationCode.CodeType type, String code, Duration ttl) {
+        long deadline = System.nanoTime() + ttl.toNanos();
+        String account = account(email, type);
+        Entry entry = new Entry(account, code, deadline, tickOf(deadline) + 1);
+        Shard shard = shard(account);
+        shard.lock.lock();
+        try {
+            List<Entry> codes = shard.codes.computeIfAbsent(account, a -> new ArrayList<>(2));
+            if (codes.size() >= maxCodesPerAccount) {
+                codes.remove(0);
+            }
+            codes.add(entry);
+            shard.wheel[(int) (entry.expiryTick & wheelMask)].add(entry);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean consume(String email, VerificationCode.CodeType type, String code) {
+        long now = System.nanoTime();
+        String account = account(email, type);
+        Shard shard = shard(account);
+        shard.lock.lock();
+        try {
+            List<Entry> codes = shard.codes.get(account);
+            if (codes == null) {
+                return false;
+            }
+            for (int i = 0; i < codes.size(); i++) {
+                Entry entry = codes.get(i);
+                if (entry.code.equals(code)) {
+                    // Used or expired, the code is gone either way; the wheel drops its slot entry when it gets there
+                    remove(shard, account, codes, i);
+                    return entry.deadline - now > 0;
+                }
+            }
+            return false;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    @Override
+    public void invalidateAll(String email, VerificationCode.CodeType type) {
+        String account = account(email, type);
+        Shard shard = shard(account);
+        shard.lock.lock();
+        try {
+            shard.codes.remove(account);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    // The wheel already expires codes as it turns; this only catches it up
+    @Override
+    public int purgeExpired() {
+        return advance();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                for (List<Entry> codes : shard.codes.values()) {
+                    size += codes.size();
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Turns the wheel to the current tick, emptying every slot passed since the last turn. Codes filed in a
+     * slot a full turn or more ahead stay for a later lap. Returns the number of codes expired.
+     */
+    @Scheduled(fixedDelayString = "${app.email.verification.memory.tick-ms:1000}")
+    public int advance() {
+        if (!advancing.tryLock()) {
+            return 0;
+        }
+        try {
+            long now = tickOf(System.nanoTime());
+            // After a long pause one full turn visits every slot; there is nothing to gain from more
+            long from = Math.max(lastTick + 1, now - wheelMask);
+            int expired = 0;
+            for (Shard shard : shards) {
+                shard.lock.lock();
+                try {
+                    for (long tick = from; tick <= now; tick++) {
+                        expired += expireSlot(shard, shard.wheel[(int) (tick & wheelMask)], now);
+                    }
+                } finally {
+                    shard.lock.unlock();
+                }
+            }
+            lastTick = now;
+            return expired;
+        } finally {
+            advancing.unlock();
+        }
+    }
+
+    // Codes already used, replaced or invalidated are still filed in the wheel and only leave it here
+    private int expireSlot(Shard shard, List<Entry> slot, long now) {
+        int[] expired = {0};
+        slot.removeIf(entry -> {
+            if (entry.expiryTick > now) {
+                return false;
+            }
+            List<Entry> codes = shard.codes.get(entry.account);
+            int index = codes == null ? -1 : codes.indexOf(entry);
+            if (index >= 0) {
+                remove(shard, entry.account, codes, index);
+                expired[0]++;
+            }
+            return true;
+        });
+        return expired[0];
+    }
+
+    private static void remove(Shard shard, String account, List<Entry> codes, int index) {
+        codes.remove(index);
+        if (codes.isEmpty()) {
+            shard.codes.remove(account);
+        }
+    }
+
+    private long tickOf(long nanos) {
+        return (nanos - startNanos) / tickNanos;
+    }
+
+    private Shard shard(String account) {
+        return shards[Math.floorMod(account.hashCode(), shards.length)];
+    }
+
+    private static String account(String email, VerificationCode.CodeType type) {
+        return type.name() + ':' + email;
+    }
+
+    private static final class Shard {
+
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<String, List<Entry>> codes = new HashMap<>();
+        final List<Entry>[] wheel;
+
+        @SuppressWarnings("unchecked")
+        Shard(int slots) {
+            wheel = new List[slots];
+            for (int i = 0; i < slots; i++) {
+                wheel[i] = new ArrayList<>();
+            }
+        }
+    }
+
+    // Compared by identity, so a code saved twice is two entries
+    private static final class Entry {
+
+        final String account;
+        final String code;
+        final long deadline;
+        final long expiryTick;
+
+        Entry(String account, String code, long deadline, long expiryTick) {
+            this.account = account;
+            this.code = code;
+            this.deadline = deadline;
+            this.expiryTick = expiryTick;
+        }
+    }
+}
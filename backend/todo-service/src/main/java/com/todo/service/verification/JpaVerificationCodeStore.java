@@ -0,0 +1,65 @@
+package com.todo.service.verification;
+
+import com.todo.service.entity.VerificationCode;
+import com.todo.service.repository.VerificationCodeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Codes as rows of {@code verification_codes}, shared by every node. A code is looked up and used up by
+ * one conditional {@code UPDATE} on the (email, type, code) index; expired rows are purged in chunks of
+ * {@value #PURGE_CHUNK_SIZE}, one transaction each.
+ */
+@Component
+@ConditionalOnProperty(name = "app.email.verification.store", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaVerificationCodeStore implements VerificationCodeStore {
+
+    static final int PURGE_CHUNK_SIZE = 1000;
+
+    private final VerificationCodeRepository verificationCodeRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void save(String email, VerificationCode.CodeType type, String code, Duration ttl) {
+        VerificationCode verificationCode = new VerificationCode();
+        verificationCode.setEmail(email);
+        verificationCode.setCode(code);
+        verificationCode.setType(type);
+        verificationCode.setExpiresAt(LocalDateTime.now().plus(ttl));
+        verificationCode.setUsed(false);
+        verificationCodeRepository.save(verificationCode);
+    }
+
+    @Override
+    public boolean consume(String email, VerificationCode.CodeType type, String code) {
+        return verificationCodeRepository.consume(email, type, code, LocalDateTime.now()) > 0;
+    }
+
+    @Override
+    public void invalidateAll(String email, VerificationCode.CodeType type) {
+        verificationCodeRepository.markCodesAsUsed(email, type);
+    }
+
+    @Override
+    public int purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = 0;
+        int removed;
+        do {
+            removed = transactionTemplate.execute(status -> {
+                List<Long> ids = verificationCodeRepository.findExpiredIds(now, PageRequest.of(0, PURGE_CHUNK_SIZE));
+                return ids.isEmpty() ? 0 : verificationCodeRepository.deleteByIds(ids);
+            });
+            purged += removed;
+        } while (removed == PURGE_CHUNK_SIZE);
+        return purged;
+    }
+}
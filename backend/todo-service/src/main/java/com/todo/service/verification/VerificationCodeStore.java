@@ -0,0 +1,27 @@
+package com.todo.service.verification;
+
+import com.todo.service.entity.VerificationCode;
+
+import java.time.Duration;
+
+/**
+ * Where outstanding verification and password reset codes live until they are used or expire.
+ * {@code app.email.verification.store} picks the backend: {@code jpa} (the default) keeps them in the
+ * {@code verification_codes} table, {@code memory} in this node's heap.
+ */
+public interface VerificationCodeStore {
+
+    void save(String email, VerificationCode.CodeType type, String code, Duration ttl);
+
+    /**
+     * Uses up the code if it is outstanding and not expired. Returns false otherwise; of two concurrent
+     * calls with the same code, exactly one returns true.
+     */
+    boolean consume(String email, VerificationCode.CodeType type, String code);
+
+    // Every outstanding code of this email and type stops working
+    void invalidateAll(String email, VerificationCode.CodeType type);
+
+    // Drops expired codes; returns how many were removed
+    int purgeExpired();
+}
@@ -0,0 +1,17 @@
+-- One composite index per TodoRepository access path: user_id first, then the filter column,
+-- then the sort key, with id as the keyset tie-breaker so pages never need a filesort.
+
+-- findByUserIdOrderByCreatedAtDesc, findFirstPage, findPageAfter
+CREATE INDEX idx_todos_user_created ON todos (user_id, created_at, id);
+
+-- findByUserIdAndCompletedOrderByCreatedAtDesc, countByUserIdAndCompleted, status pages
+CREATE INDEX idx_todos_user_completed_created ON todos (user_id, completed, created_at, id);
+
+-- findByUserIdAndPriorityOrderByCreatedAtDesc, priority pages
+CREATE INDEX idx_todos_user_priority_created ON todos (user_id, priority, created_at, id);
+
+-- findOverdueTodos, findTodosByDateRange and their pages
+CREATE INDEX idx_todos_user_due ON todos (user_id, due_date, id);
+
+-- findTodosDueBetween (reminder scan across all users)
+CREATE INDEX idx_todos_completed_due ON todos (completed, due_date);
@@ -0,0 +1,27 @@
+-- Per-user todo counters maintained by TodoService in the same transaction as each write
+CREATE TABLE todo_stats (
+    user_id VARCHAR(255) NOT NULL,
+    total BIGINT NOT NULL,
+    completed BIGINT NOT NULL,
+    low_count BIGINT NOT NULL,
+    medium_count BIGINT NOT NULL,
+    high_count BIGINT NOT NULL,
+    urgent_count BIGINT NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (user_id)
+);
+
+INSERT INTO todo_stats (user_id, total, completed, low_count, medium_count, high_count, urgent_count, updated_at)
+SELECT user_id,
+       COUNT(*),
+       SUM(CASE WHEN completed = TRUE THEN 1 ELSE 0 END),
+       SUM(CASE WHEN priority = 'LOW' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN priority = 'MEDIUM' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN priority = 'HIGH' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN priority = 'URGENT' THEN 1 ELSE 0 END),
+       CURRENT_TIMESTAMP(6)
+FROM todos
+GROUP BY user_id;
+
+-- Overdue and due-today counts depend on the clock, so they are counted live from this index
+CREATE INDEX idx_todos_user_due_completed ON todos (user_id, due_date, completed);
@@ -0,0 +1,10 @@
+-- Todo ids come from a pooled table generator so Hibernate can batch inserts (IDENTITY forces one round trip per row)
+CREATE TABLE id_generators (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val BIGINT NOT NULL,
+    PRIMARY KEY (sequence_name)
+);
+
+-- Start one full allocation block above the current maximum so no pooled id can collide with an existing row
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'todos', COALESCE(MAX(id), 0) + 51 FROM todos;
@@ -0,0 +1,12 @@
+-- Reminder watermark: set when a reminder is claimed, cleared again if sending fails or the due date moves
+ALTER TABLE todos ADD COLUMN reminded_at DATETIME(6) NULL;
+
+-- Todos already inside the default 24h window were handled (or dropped) by the old 5-minute polling job
+UPDATE todos SET reminded_at = CURRENT_TIMESTAMP(6)
+WHERE due_date IS NOT NULL AND due_date <= TIMESTAMPADD(HOUR, 24, CURRENT_TIMESTAMP(6));
+
+-- Serves the reminder queue scan: reminded_at IS NULL AND completed = FALSE, keyset over (due_date, id)
+CREATE INDEX idx_todos_reminder_queue ON todos (reminded_at, completed, due_date, id);
+
+-- Only served the old fixed-window reminder query
+DROP INDEX idx_todos_completed_due ON todos;
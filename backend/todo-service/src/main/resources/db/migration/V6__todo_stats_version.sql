@@ -0,0 +1,2 @@
+-- Per-user change counter: bumped by every write to the user's todos and served as the list ETag
+ALTER TABLE todo_stats ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
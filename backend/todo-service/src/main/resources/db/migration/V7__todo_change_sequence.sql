@@ -0,0 +1,21 @@
+-- Delta sync: each write stamps the rows it touches with the user's new todo_stats.version
+ALTER TABLE todos ADD COLUMN change_seq BIGINT NOT NULL DEFAULT 0;
+
+-- Existing rows count as changed at the user's current version
+UPDATE todos t SET change_seq = COALESCE((SELECT s.version FROM todo_stats s WHERE s.user_id = t.user_id), 0);
+
+-- Serves the changes scan: user_id = ? keyset over (change_seq, id)
+CREATE INDEX idx_todos_user_change ON todos (user_id, change_seq, id);
+
+-- One row per deleted todo, kept for app.todo-sync.tombstone-retention-days
+CREATE TABLE todo_tombstones (
+    todo_id BIGINT NOT NULL,
+    user_id VARCHAR(255) NOT NULL,
+    change_seq BIGINT NOT NULL,
+    deleted_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (todo_id)
+);
+
+CREATE INDEX idx_tombstones_user_change ON todo_tombstones (user_id, change_seq);
+-- Serves the retention purge
+CREATE INDEX idx_tombstones_deleted_at ON todo_tombstones (deleted_at);
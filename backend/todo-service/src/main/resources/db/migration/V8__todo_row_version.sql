@@ -0,0 +1,3 @@
+-- Optimistic locking: every change a client can see bumps the row's version, which serves as the
+-- single-todo ETag and is checked against If-Match
+ALTER TABLE todos ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
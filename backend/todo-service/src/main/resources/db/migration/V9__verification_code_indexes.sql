@@ -0,0 +1,5 @@
+-- Serves VerificationCodeRepository.consume and markCodesAsUsed, which used to scan the table
+CREATE INDEX idx_verification_codes_lookup ON verification_codes (email, type, code);
+
+-- Serves the chunked expiry purge
+CREATE INDEX idx_verification_codes_expires ON verification_codes (expires_at);
@@ -0,0 +1,87 @@
+package com.todo.service.controller;
+
+import com.todo.service.dto.AuthResponse;
+import com.todo.service.dto.RegisterRequest;
+import com.todo.service.entity.VerificationCode;
+import com.todo.service.repository.UserRepository;
+import com.todo.service.repository.VerificationCodeRepository;
+import com.todo.service.security.PasswordHashingRejectedException;
+import com.todo.service.service.AuthService;
+import com.todo.service.service.VerificationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthControllerTest {
+
+    private static final String EMAIL = "user@example.com";
+    private static final String CODE = "123456";
+
+    private AuthService authService;
+    private VerificationService verificationService;
+    private AuthController controller;
+
+    @BeforeEach
+    void setUp() {
+        authService = mock(AuthService.class);
+        verificationService = mock(VerificationService.class);
+        controller = new AuthController(authService, verificationService, mock(UserRepository.class),
+                mock(VerificationCodeRepository.class));
+    }
+
+    @Test
+    void completeRegistrationCanBeRetriedAfterHashingWasRejected() {
+        when(authService.hashPassword("secret-password"))
+                .thenThrow(new PasswordHashingRejectedException("Password hashing is busy"))
+                .thenReturn("hash");
+        // Codes are single use: only the first consume succeeds
+        when(verificationService.verifyCode(EMAIL, CODE, VerificationCode.CodeType.EMAIL_VERIFICATION))
+                .thenReturn(true, false);
+        when(authService.register(any(RegisterRequest.class), eq("hash")))
+                .thenReturn(new AuthResponse("token", 1L, "user", EMAIL, "First", "Last"));
+
+        ResponseEntity<?> busy = controller.completeRegistration(completeRegistration());
+        assertThat(busy.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(busy.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+        ResponseEntity<?> retried = controller.completeRegistration(completeRegistration());
+        assertThat(retried.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    }
+
+    @Test
+    void resetPasswordCanBeRetriedAfterHashingWasRejected() {
+        when(authService.hashPassword("new-password"))
+                .thenThrow(new PasswordHashingRejectedException("Password hashing is busy"))
+                .thenReturn("hash");
+        when(verificationService.verifyCode(EMAIL, CODE, VerificationCode.CodeType.PASSWORD_RESET))
+                .thenReturn(true, false);
+
+        AuthController.ResetPasswordRequest request = new AuthController.ResetPasswordRequest();
+        request.setEmail(EMAIL);
+        request.setCode(CODE);
+        request.setNewPassword("new-password");
+
+        assertThat(controller.resetPassword(request).getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(controller.resetPassword(request).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private static AuthController.CompleteRegistrationRequest completeRegistration() {
+        RegisterRequest registerData = new RegisterRequest();
+        registerData.setUsername("user");
+        registerData.setEmail(EMAIL);
+        registerData.setPassword("secret-password");
+        AuthController.CompleteRegistrationRequest request = new AuthController.CompleteRegistrationRequest();
+        request.setEmail(EMAIL);
+        request.setCode(CODE);
+        request.setRegisterData(registerData);
+        return request;
+    }
+}
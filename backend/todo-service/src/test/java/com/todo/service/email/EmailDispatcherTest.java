@@ -0,0 +1,98 @@
+package com.todo.service.email;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmailDispatcherTest {
+
+    private EmailDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void unexpectedTransportFailureFailsTheBatchAndReleasesTheCircuit() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        EmailTransport transport = new EmailTransport() {
+            @Override
+            public void send(List<EmailMessage> messages, String idempotencyKey) {
+                // Two bugs in a row: the first opens the circuit, the second fails its half-open trial
+                if (calls.incrementAndGet() <= 2) {
+                    throw new NullPointerException("transport bug");
+                }
+            }
+
+            @Override
+            public int maxBatchSize() {
+                return 1;
+            }
+        };
+        dispatcher = new EmailDispatcher(transport, new SimpleMeterRegistry(), 100, 1, 3, 1, 10, 1, 50, 1000);
+        dispatcher.start();
+
+        for (int i = 0; i < 2; i++) {
+            CompletableFuture<Void> failed = dispatcher.submit(message());
+            assertThatThrownBy(() -> failed.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(NullPointerException.class);
+        }
+
+        // A trial left in flight would make the worker wait forever here
+        CompletableFuture<Void> sent = dispatcher.submit(message());
+        sent.get(5, TimeUnit.SECONDS);
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void rejectedBatchFailsOnlyTheOffendingMessage() throws Exception {
+        List<String> keys = new CopyOnWriteArrayList<>();
+        EmailTransport transport = new EmailTransport() {
+            @Override
+            public void send(List<EmailMessage> messages, String idempotencyKey) {
+                keys.add(idempotencyKey);
+                if (messages.stream().anyMatch(m -> m.getTo().equals("bad@example.com"))) {
+                    throw new EmailDeliveryException("Resend API returned 422", false);
+                }
+            }
+
+            @Override
+            public int maxBatchSize() {
+                return 10;
+            }
+        };
+        dispatcher = new EmailDispatcher(transport, new SimpleMeterRegistry(), 100, 1, 3, 1, 10, 5, 50, 1000);
+        dispatcher.start();
+
+        CompletableFuture<Void> good = dispatcher.submit(message());
+        CompletableFuture<Void> bad = dispatcher.submit(message("bad@example.com"));
+        CompletableFuture<Void> alsoGood = dispatcher.submit(message("other@example.com"));
+
+        good.get(5, TimeUnit.SECONDS);
+        alsoGood.get(5, TimeUnit.SECONDS);
+        assertThatThrownBy(() -> bad.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(EmailDeliveryException.class);
+        assertThat(keys).doesNotHaveDuplicates();
+    }
+
+    private static EmailMessage message() {
+        return message("to@example.com");
+    }
+
+    private static EmailMessage message(String to) {
+        return new EmailMessage("from@example.com", to, "Subject", "Body", "test");
+    }
+}
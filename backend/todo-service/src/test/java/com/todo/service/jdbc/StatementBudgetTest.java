@@ -0,0 +1,190 @@
+package com.todo.service.jdbc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todo.service.cache.TodoCache;
+import com.todo.service.dto.LoginRequest;
+import com.todo.service.dto.RegisterRequest;
+import com.todo.service.dto.TodoPatch;
+import com.todo.service.entity.Todo;
+import com.todo.service.service.AuthService;
+import com.todo.service.service.TodoService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+/**
+ * Counts the SQL statements each {@link TodoService} and {@link AuthService} call executes, as seen by
+ * {@link StatementObserver}, against H2 in MySQL mode with the Flyway schema. Every todo call runs for a user
+ * with {@value #SMALL_TODOS} todos and for one with {@value #LARGE_TODOS}; a call whose count grows with the
+ * user's todos is an N+1 and fails even within budget. The todo cache caps users at {@value #CACHE_CAP} todos, so
+ * the larger user takes the uncached paths.
+ * <p>
+ * The budgets are the counts measured on the current code. A change that legitimately adds a statement raises
+ * its budget in the same commit.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "spring.profiles.active=test",
+    "spring.datasource.url=jdbc:h2:mem:statement-budget;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.flyway.enabled=true",
+    "spring.jpa.hibernate.ddl-auto=none",
+    "resend.api.key=test",
+    // Nothing listens there, so a verification email fails fast instead of leaving the machine
+    "resend.api.base-url=http://127.0.0.1:9",
+    "app.password-hashing.cost=10",
+    "app.todo-search.rebuild-on-startup=false",
+    "app.todo-cache.max-todos-per-user=" + StatementBudgetTest.CACHE_CAP,
+    "app.todo-stats.repair-initial-delay-ms=86400000",
+    "app.email.reminder.poll-interval-ms=86400000",
+    "logging.level.com.todo=WARN"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StatementBudgetTest {
+
+    private static final int SMALL_TODOS = 10;
+    private static final int LARGE_TODOS = 500;
+    static final int CACHE_CAP = 100;
+    // Each call runs this many times per user, from a cold cache, and the highest count is kept
+    private static final int CALLS = 10;
+    private static final String PASSWORD = "Budget-password-1";
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private TodoCache todoCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private long[] smallIds;
+    private long[] largeIds;
+
+    @BeforeAll
+    void createTodos() {
+        smallIds = createTodos("budget-small", SMALL_TODOS);
+        largeIds = createTodos("budget-large", LARGE_TODOS);
+    }
+
+    @TestFactory
+    Stream<DynamicTest> todoCallsStayWithinBudget() {
+        LocalDateTime now = LocalDateTime.now();
+        return Stream.of(
+            todoCase("getAllTodosByUserId", 2, (userId, id, call) -> todoService.getAllTodosByUserId(userId)),
+            todoCase("getTodosByStatus", 2, (userId, id, call) -> todoService.getTodosByStatus(userId, false)),
+            todoCase("getTodosByPriority", 2, (userId, id, call) ->
+                    todoService.getTodosByPriority(userId, Todo.Priority.HIGH)),
+            todoCase("getTodosPage", 1, (userId, id, call) -> todoService.getTodosPage(userId, 50, null)),
+            todoCase("getTodosByStatusPage", 1, (userId, id, call) ->
+                    todoService.getTodosByStatusPage(userId, false, 50, null)),
+            todoCase("getOverdueTodos", 1, (userId, id, call) -> todoService.getOverdueTodos(userId)),
+            todoCase("getTodosByDateRange", 1, (userId, id, call) ->
+                    todoService.getTodosByDateRange(userId, now.minusDays(7), now.plusDays(7))),
+            todoCase("searchTodos", 2, (userId, id, call) -> todoService.searchTodos(userId, "budget", 50)),
+            todoCase("getTodoById", 1, (userId, id, call) -> todoService.getTodoById(id, userId)),
+            todoCase("getSummary", 2, (userId, id, call) -> todoService.getSummary(userId)),
+            todoCase("createTodo", 4, (userId, id, call) -> todoService.createTodo(newTodo(userId, call))),
+            todoCase("updateTodo", 4, (userId, id, call) -> todoService.updateTodo(id, newTodo(userId, call), userId)),
+            todoCase("patchTodo title", 3, (userId, id, call) -> todoService.patchTodo(id, userId,
+                    patch(Map.of("title", "Patched " + call)), null)),
+            todoCase("patchTodo completed", 3, (userId, id, call) -> todoService.patchTodo(id, userId,
+                    patch(Map.of("completed", call % 2 == 0)), null)),
+            todoCase("toggleTodoStatus", 3, (userId, id, call) -> todoService.toggleTodoStatus(id, userId)),
+            // Last: each call deletes another of the user's todos
+            todoCase("deleteTodo", 5, (userId, id, call) -> todoService.deleteTodo(id, userId))
+        );
+    }
+
+    // In order: the reset enables the account registered first, so the login can succeed
+    @TestFactory
+    Stream<DynamicTest> authCallsStayWithinBudget() {
+        RegisterRequest register = new RegisterRequest();
+        register.setUsername("budget-user");
+        register.setEmail("budget-user@example.com");
+        register.setPassword(PASSWORD);
+        register.setFirstName("Budget");
+        register.setLastName("User");
+        LoginRequest login = new LoginRequest();
+        login.setUsernameOrEmail("budget-user");
+        login.setPassword(PASSWORD);
+        return Stream.of(
+            authCase("register", 3, () -> authService.register(register)),
+            authCase("resetPassword", 3, () -> authService.resetPassword(register.getEmail(), PASSWORD)),
+            authCase("login", 1, () -> authService.login(login)),
+            authCase("getCurrentUser", 1, () -> authService.getCurrentUser("budget-user")),
+            authCase("checkAvailability", 1, () -> authService.checkAvailability("budget-user", "free@example.com"))
+        );
+    }
+
+    private DynamicTest todoCase(String name, int budget, TodoCall call) {
+        return dynamicTest(name, () -> {
+            long small = maxStatements(call, "budget-small", smallIds);
+            long large = maxStatements(call, "budget-large", largeIds);
+            assertThat(small).as("%s with %d todos", name, SMALL_TODOS).isLessThanOrEqualTo(budget);
+            assertThat(large).as("%s with %d todos", name, LARGE_TODOS).isLessThanOrEqualTo(budget);
+            assertThat(large).as("%s grows with the user's todos (N+1)", name).isLessThanOrEqualTo(small);
+        });
+    }
+
+    private static DynamicTest authCase(String name, int budget, Runnable call) {
+        return dynamicTest(name, () -> {
+            long before = StatementCounter.current();
+            call.run();
+            assertThat(StatementCounter.current() - before).as(name).isLessThanOrEqualTo(budget);
+        });
+    }
+
+    private long maxStatements(TodoCall call, String userId, long[] ids) {
+        todoCache.invalidate(userId);
+        long max = 0;
+        for (int i = 0; i < CALLS; i++) {
+            long before = StatementCounter.current();
+            call.run(userId, ids[i % ids.length], i);
+            max = Math.max(max, StatementCounter.current() - before);
+        }
+        return max;
+    }
+
+    private long[] createTodos(String userId, int count) {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = todoService.createTodo(newTodo(userId, i)).getId();
+        }
+        return ids;
+    }
+
+    private TodoPatch patch(Map<String, Object> fields) {
+        return TodoPatch.from(objectMapper.valueToTree(fields));
+    }
+
+    // Half overdue and half due within the week, so the overdue and date range reads return rows
+    private static Todo newTodo(String userId, int i) {
+        Todo todo = new Todo();
+        todo.setUserId(userId);
+        todo.setTitle("Budget todo " + i);
+        todo.setDescription("Created by the statement budget test");
+        todo.setPriority(Todo.Priority.values()[i % Todo.Priority.values().length]);
+        todo.setDueDate(LocalDateTime.now().plusDays(i % 2 == 0 ? -1 : 3));
+        return todo;
+    }
+
+    @FunctionalInterface
+    private interface TodoCall {
+        void run(String userId, long todoId, int call);
+    }
+}